@@ -0,0 +1,85 @@
+package benchmark;
+
+import model.PackedMove;
+import model.Position;
+import model.PuzzleConfig;
+import model.TowerPuzzleModel;
+import model.TowerPuzzleState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations of the model that the solvers and the user interface call for every state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ModelBenchmark {
+
+    @Param({"3"})
+    private int rods;
+
+    @Param({"2"})
+    private int colors;
+
+    @Param({"4", "8"})
+    private int disksPerColor;
+
+    private TowerPuzzleModel model;
+    private TowerPuzzleState state;
+
+    @Setup
+    public void setUp() {
+        state = new TowerPuzzleState(new PuzzleConfig(rods, colors, disksPerColor));
+        model = new TowerPuzzleModel(state.clone());
+    }
+
+    @Benchmark
+    public Set<TwoPhaseMoveState.TwoPhaseMove<Position>> getLegalMoves() {
+        return model.getLegalMoves();
+    }
+
+    @Benchmark
+    public void forEachLegalMove(Blackhole blackhole) {
+        state.forEachLegalMove(blackhole::consume);
+    }
+
+    @Benchmark
+    public TwoPhaseMoveState<Position> cloneModel() {
+        return model.clone();
+    }
+
+    @Benchmark
+    public TowerPuzzleState cloneState() {
+        return state.clone();
+    }
+
+    @Benchmark
+    public int hashModel() {
+        return model.hashCode();
+    }
+
+    @Benchmark
+    public long makeAndUndoMove() {
+        state.makeMove(PackedMove.of(0, 2));
+        state.makeMove(PackedMove.of(2, 0));
+        return state.fingerprint();
+    }
+}
@@ -0,0 +1,68 @@
+package benchmark;
+
+import com.google.gson.Gson;
+import json.GameResults;
+import json.ResultManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving one game result into a results log that already holds the given number of results.
+ * The log is restored before every invocation, so every save sees the same file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(1)
+public class ResultsBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int results;
+
+    private Path file;
+    private String content;
+
+    @Setup(Level.Trial)
+    public void createContent() throws IOException {
+        file = Files.createTempFile("results", ".jsonl");
+        var gson = new Gson();
+        var sb = new StringBuilder();
+        for (int i = 0; i < results; i++) {
+            sb.append(gson.toJson(new GameResults("player" + i, 67 + i % 50, Boolean.toString(i % 3 == 0)))).append('\n');
+        }
+        content = sb.toString();
+    }
+
+    @Setup(Level.Invocation)
+    public void restoreFile() throws IOException {
+        Files.writeString(file, content);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void saveGameData() throws IOException {
+        ResultManager.saveGameDataToJSON(new GameResults("benchmark", 67, "true"), file.toString());
+    }
+}
@@ -0,0 +1,68 @@
+package benchmark;
+
+import bfs.BidirectionalSearch;
+import bfs.PackedBreadthFirstSearch;
+import bfs.Solver;
+import model.Position;
+import model.PuzzleConfig;
+import model.TowerPuzzleState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full search from the start position, the work {@code bfs.Search} and the hint button do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"3"})
+    private int rods;
+
+    @Param({"2"})
+    private int colors;
+
+    @Param({"3", "4", "5"})
+    private int disksPerColor;
+
+    @Param({"bfs", "bidirectional"})
+    private String mode;
+
+    private Solver solver;
+    private long start;
+
+    @Setup
+    public void setUp() {
+        var state = new TowerPuzzleState(new PuzzleConfig(rods, colors, disksPerColor));
+        var board = state.getBoard();
+        start = state.toPackedState();
+        solver = switch (mode) {
+            case "bfs" -> new PackedBreadthFirstSearch(board);
+            case "bidirectional" -> new BidirectionalSearch(board);
+            default -> throw new IllegalArgumentException("Unknown search mode: " + mode);
+        };
+    }
+
+    @Benchmark
+    public Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search() {
+        return solver.search(start);
+    }
+}
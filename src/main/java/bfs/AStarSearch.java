@@ -0,0 +1,204 @@
+package bfs;
+
+import model.PackedBoard;
+import model.Position;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A* search over states encoded by {@link PackedBoard}.
+ * <p>
+ * Every discovered state is stored once, together with the index of its parent and the length of the
+ * best known path to it. The open list is a primitive heap of entries that pack the estimated total cost,
+ * a tie breaker preferring deeper states and the index of the state into one {@code long}. Entries made
+ * obsolete by a shorter path are skipped when they are taken from the heap.
+ * <p>
+ * The {@link SearchMetrics} of the search record its counters at every check of the {@link SearchControl}
+ * and at the end. Their lower bound is the largest estimated total cost taken from the heap, as no solution
+ * can be shorter than the cheapest entry of the open list.
+ */
+public class AStarSearch implements Solver {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int INDEX_BITS = 32;
+    private static final int DEPTH_BITS = 10;
+    private static final int MAX_DEPTH = (1 << DEPTH_BITS) - 1;
+
+    private final PackedBoard board;
+    private final Heuristic heuristic;
+    private long[] states;
+    private int[] parents;
+    private int[] depths;
+    private int count;
+    private long expanded;
+    private long generated;
+    private int bound;
+    private LongIntHashMap index;
+    private LongMinHeap open;
+    private SearchControl control;
+    private SearchMetrics metrics;
+
+    /**
+     * Constructs a new {@code AStarSearch} guided by {@link MisplacedDisks}.
+     */
+    public AStarSearch() {
+        this(new MisplacedDisks());
+    }
+
+    /**
+     * Constructs a new {@code AStarSearch} on the standard board guided by the given heuristic.
+     *
+     * @param heuristic An admissible heuristic.
+     */
+    public AStarSearch(Heuristic heuristic) {
+        this(PackedBoard.STANDARD, heuristic);
+    }
+
+    /**
+     * Constructs a new {@code AStarSearch} guided by the given heuristic.
+     *
+     * @param board     The encoding of the states.
+     * @param heuristic An admissible heuristic.
+     */
+    public AStarSearch(PackedBoard board, Heuristic heuristic) {
+        this.board = board;
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Searches for the shortest solution from the given packed state.
+     *
+     * @param start The packed state to start from.
+     * @return The moves of an optimal solution, or an empty optional if the puzzle cannot be solved.
+     * @throws SearchAbortedException If the {@link SearchControl} of the search stops it.
+     */
+    @Override
+    public Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search(long start) {
+        states = new long[INITIAL_CAPACITY];
+        parents = new int[INITIAL_CAPACITY];
+        depths = new int[INITIAL_CAPACITY];
+        count = 0;
+        expanded = 0;
+        generated = 0;
+        bound = 0;
+        index = new LongIntHashMap(INITIAL_CAPACITY);
+        open = new LongMinHeap();
+        metrics = new SearchMetrics("astar", null);
+        try {
+            var solution = expand(start);
+            metrics.progress(expanded, generated, count, memoryBytes(), bound);
+            metrics.finish(solution.isPresent() ? SearchOutcome.SOLVED : SearchOutcome.UNSOLVABLE,
+                    solution.map(List::size).orElse(-1));
+            return solution;
+        } catch (SearchAbortedException e) {
+            metrics.progress(expanded, generated, count, memoryBytes(), bound);
+            metrics.finish(e.getOutcome(), -1);
+            throw e;
+        }
+    }
+
+    private Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> expand(long start) {
+        long[] successors = new long[board.maxSuccessors()];
+        index.putIfAbsent(start, 0);
+        append(start, -1, 0);
+        open.add(entry(heuristic.estimate(start), 0, 0));
+        while (!open.isEmpty()) {
+            long entry = open.poll();
+            bound = Math.max(bound, (int) (entry >>> (INDEX_BITS + DEPTH_BITS)));
+            int current = (int) entry;
+            int depth = depths[current];
+            if (MAX_DEPTH - (int) (entry >>> INDEX_BITS & MAX_DEPTH) != Math.min(depth, MAX_DEPTH)) {
+                continue;
+            }
+            long state = states[current];
+            if (board.isSolved(state)) {
+                return Optional.of(path(current));
+            }
+            expanded++;
+            if (control != null && (expanded & SearchControl.CHECK_MASK) == 0) {
+                metrics.progress(expanded, generated, count, memoryBytes(), bound);
+                control.check(count, memoryBytes());
+            }
+            int successorCount = board.successors(state, successors);
+            generated += successorCount;
+            for (int i = 0; i < successorCount; i++) {
+                long next = successors[i];
+                int known = index.get(next);
+                if (known == LongIntHashMap.NO_VALUE) {
+                    known = count;
+                    index.putIfAbsent(next, known);
+                    append(next, current, depth + 1);
+                } else if (depths[known] > depth + 1) {
+                    parents[known] = current;
+                    depths[known] = depth + 1;
+                } else {
+                    continue;
+                }
+                open.add(entry(depth + 1 + heuristic.estimate(next), depth + 1, known));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public long getExpandedCount() {
+        return expanded;
+    }
+
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    @Override
+    public Optional<SearchMetrics> getMetrics() {
+        return Optional.ofNullable(metrics);
+    }
+
+    private long memoryBytes() {
+        return (long) states.length * (Long.BYTES + 2 * Integer.BYTES)
+                + (long) index.capacity() * (Long.BYTES + Integer.BYTES) + (long) open.size() * Long.BYTES;
+    }
+
+    /**
+     * Returns the number of distinct states discovered by the last search.
+     *
+     * @return The number of visited states.
+     */
+    public int getVisitedCount() {
+        return count;
+    }
+
+    private static long entry(int cost, int depth, int index) {
+        return (long) cost << (INDEX_BITS + DEPTH_BITS)
+                | (long) (MAX_DEPTH - Math.min(depth, MAX_DEPTH)) << INDEX_BITS
+                | index;
+    }
+
+    private void append(long state, int parent, int depth) {
+        if (count == states.length) {
+            states = Arrays.copyOf(states, count << 1);
+            parents = Arrays.copyOf(parents, count << 1);
+            depths = Arrays.copyOf(depths, count << 1);
+        }
+        states[count] = state;
+        parents[count] = parent;
+        depths[count] = depth;
+        count++;
+    }
+
+    private List<TwoPhaseMoveState.TwoPhaseMove<Position>> path(int last) {
+        int length = 0;
+        for (int i = last; i >= 0; i = parents[i]) {
+            length++;
+        }
+        long[] line = new long[length];
+        for (int i = last; i >= 0; i = parents[i]) {
+            line[--length] = states[i];
+        }
+        return Paths.toMoves(board, line);
+    }
+}
@@ -0,0 +1,255 @@
+package bfs;
+
+import model.PackedBoard;
+import model.Position;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Bidirectional breadth-first search over states encoded by {@link PackedBoard}.
+ * <p>
+ * One search runs forward from the start state, the other one backward from every solved state
+ * at once. Every move can be undone by moving the same disk back, so the backward search uses
+ * the ordinary successors of a state. The search always expands a complete layer of the side with
+ * the smaller frontier and stops as soon as a newly discovered state is known to the other side,
+ * which already yields a shortest path.
+ * <p>
+ * If the goal states are symmetric, both sides only store the canonical form of every state, see
+ * {@link PackedBoard#canonical(long)}, and the path of canonical states is unfolded into the moves from the
+ * start.
+ * <p>
+ * Every stored state costs about {@value #BYTES_PER_STATE} bytes, and the search gives up with a
+ * {@link StateLimitExceededException} once the two sides together would store more states than its
+ * budget allows.
+ * <p>
+ * The counters of every expanded layer of either side are collected by the {@link SearchMetrics} of
+ * the search.
+ */
+public class BidirectionalSearch implements Solver {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int BYTES_PER_STATE = 56;
+
+    private final PackedBoard board;
+    private final Symmetry symmetry;
+    private final long[] goals;
+    private final int maxStates;
+    private Side forward;
+    private Side backward;
+    private long expanded;
+    private long generated;
+    private int roots;
+    private SearchListener listener;
+    private SearchControl control;
+    private SearchMetrics metrics;
+
+    /**
+     * Constructs a new {@code BidirectionalSearch} towards the solved state of the standard board.
+     */
+    public BidirectionalSearch() {
+        this(PackedBoard.STANDARD);
+    }
+
+    /**
+     * Constructs a new {@code BidirectionalSearch} towards the states returned by {@link PackedBoard#solvedStates()}
+     * whose budget is half of the maximum heap size.
+     *
+     * @param board The encoding of the states.
+     */
+    public BidirectionalSearch(PackedBoard board) {
+        this(board, board.solvedStates(), MemoryBudget.maxStates(BYTES_PER_STATE));
+    }
+
+    /**
+     * Constructs a new {@code BidirectionalSearch} towards the given goal states.
+     *
+     * @param board     The encoding of the states.
+     * @param goals     The packed goal states.
+     * @param maxStates The largest number of states the two sides may store together.
+     */
+    public BidirectionalSearch(PackedBoard board, long[] goals, int maxStates) {
+        this.board = board;
+        this.symmetry = new Symmetry(board, goals);
+        this.goals = new long[goals.length];
+        for (int i = 0; i < goals.length; i++) {
+            this.goals[i] = symmetry.canonical(goals[i]);
+        }
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Searches for the shortest solution from the given packed state.
+     *
+     * @param start The packed state to start from.
+     * @return The moves of an optimal solution, or an empty optional if no goal state is reachable.
+     * @throws StateLimitExceededException If the search needs more states than its budget.
+     * @throws SearchAbortedException       If the {@link SearchControl} of the search stops it.
+     */
+    @Override
+    public Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search(long start) {
+        expanded = 0;
+        generated = 0;
+        metrics = new SearchMetrics("bidirectional", listener);
+        try {
+            var solution = meet(start);
+            metrics.finish(solution.isPresent() ? SearchOutcome.SOLVED : SearchOutcome.UNSOLVABLE,
+                    solution.map(List::size).orElse(-1));
+            return solution;
+        } catch (SearchAbortedException e) {
+            metrics.finish(e.getOutcome(), -1);
+            throw e;
+        }
+    }
+
+    private Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> meet(long start) {
+        long root = symmetry.canonical(start);
+        forward = new Side(new long[]{root});
+        backward = new Side(goals);
+        roots = forward.count + backward.count;
+        long[] successors = new long[board.maxSuccessors()];
+        int meeting = backward.index.get(root);
+        if (meeting != LongIntHashMap.NO_VALUE) {
+            return Optional.of(join(start, 0, meeting));
+        }
+        while (forward.frontierSize() > 0 && backward.frontierSize() > 0) {
+            boolean isForward = forward.frontierSize() <= backward.frontierSize();
+            Side side = isForward ? forward : backward;
+            Side other = isForward ? backward : forward;
+            int end = side.count;
+            for (int i = side.layerStart; i < end; i++) {
+                expanded++;
+                if (control != null && (expanded & SearchControl.CHECK_MASK) == 0) {
+                    control.check(forward.count + backward.count, forward.memoryBytes() + backward.memoryBytes());
+                }
+                int successorCount = board.successors(side.states[i], successors);
+                for (int j = 0; j < successorCount; j++) {
+                    long next = symmetry.canonical(successors[j]);
+                    generated++;
+                    if (side.add(next, i)) {
+                        if (forward.count + backward.count > maxStates) {
+                            throw new StateLimitExceededException(maxStates);
+                        }
+                        meeting = other.index.get(next);
+                        if (meeting != LongIntHashMap.NO_VALUE) {
+                            completeLayer(isForward, side, end);
+                            return Optional.of(isForward ? join(start, side.count - 1, meeting)
+                                    : join(start, meeting, side.count - 1));
+                        }
+                    }
+                }
+            }
+            completeLayer(isForward, side, end);
+            side.layerStart = end;
+            side.depth++;
+            if (control != null) {
+                control.check(forward.count + backward.count, forward.memoryBytes() + backward.memoryBytes());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void completeLayer(boolean isForward, Side side, int end) {
+        long visited = forward.count + backward.count;
+        long memoryBytes = forward.memoryBytes() + backward.memoryBytes();
+        metrics.layerCompleted(isForward ? "forward" : "backward", side.depth, end - side.layerStart, expanded,
+                generated, generated - (visited - roots), visited, memoryBytes);
+    }
+
+    @Override
+    public long getExpandedCount() {
+        return expanded;
+    }
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    @Override
+    public Optional<SearchMetrics> getMetrics() {
+        return Optional.ofNullable(metrics);
+    }
+
+    /**
+     * Returns the number of distinct states discovered by the two sides of the last search.
+     *
+     * @return The number of visited states.
+     */
+    public int getVisitedCount() {
+        return forward == null ? 0 : forward.count + backward.count;
+    }
+
+    private List<TwoPhaseMoveState.TwoPhaseMove<Position>> join(long start, int forwardIndex, int backwardIndex) {
+        long[] head = forward.chain(forwardIndex);
+        long[] tail = backward.chain(backwardIndex);
+        long[] line = new long[head.length + tail.length - 1];
+        for (int i = 0; i < head.length; i++) {
+            line[i] = head[head.length - 1 - i];
+        }
+        System.arraycopy(tail, 1, line, head.length, tail.length - 1);
+        return Paths.toMoves(board, symmetry.unfold(start, line));
+    }
+
+    /**
+     * One direction of the search: the discovered states in breadth-first order, their parents
+     * and an index for looking them up.
+     */
+    private static final class Side {
+        private long[] states = new long[INITIAL_CAPACITY];
+        private int[] parents = new int[INITIAL_CAPACITY];
+        private final LongIntHashMap index = new LongIntHashMap(INITIAL_CAPACITY);
+        private int count;
+        private int layerStart;
+        private int depth;
+
+        private Side(long[] roots) {
+            for (long root : roots) {
+                add(root, -1);
+            }
+        }
+
+        private long memoryBytes() {
+            return (long) states.length * Long.BYTES + (long) parents.length * Integer.BYTES
+                    + (long) index.capacity() * (Long.BYTES + Integer.BYTES);
+        }
+
+        private int frontierSize() {
+            return count - layerStart;
+        }
+
+        private boolean add(long state, int parent) {
+            if (!index.putIfAbsent(state, count)) {
+                return false;
+            }
+            if (count == states.length) {
+                states = Arrays.copyOf(states, count << 1);
+                parents = Arrays.copyOf(parents, count << 1);
+            }
+            states[count] = state;
+            parents[count] = parent;
+            count++;
+            return true;
+        }
+
+        private long[] chain(int last) {
+            int length = 0;
+            for (int i = last; i >= 0; i = parents[i]) {
+                length++;
+            }
+            long[] chain = new long[length];
+            length = 0;
+            for (int i = last; i >= 0; i = parents[i]) {
+                chain[length++] = states[i];
+            }
+            return chain;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package bfs;
+
+import model.Position;
+import puzzle.TwoPhaseMoveState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A solver that looks solutions up in a {@link SolutionCache} before searching with another solver.
+ * <p>
+ * Every solution found by the other solver is added to the cache together with the solutions from all the
+ * states along it, so following a solution, as the hints of the user interface do, only ever hits the cache.
+ */
+public class CachingSolver implements Solver {
+
+    private final Solver solver;
+    private final SolutionCache cache;
+    private boolean hit;
+
+    /**
+     * Constructs a new {@code CachingSolver}.
+     *
+     * @param solver The solver searching for the solutions missing from the cache, which must find optimal ones.
+     * @param cache  The cache.
+     */
+    public CachingSolver(Solver solver, SolutionCache cache) {
+        this.solver = solver;
+        this.cache = cache;
+    }
+
+    /**
+     * Returns the cached solution from the given packed state, or searches for one and caches it.
+     *
+     * @param start The packed state to start from.
+     * @return The moves of an optimal solution, or an empty optional if none was found.
+     * @throws UncheckedIOException If the cache cannot be read or written.
+     */
+    @Override
+    public Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search(long start) {
+        try {
+            var cached = cache.get(start);
+            hit = cached.isPresent();
+            if (hit) {
+                return cached;
+            }
+            var solution = solver.search(start);
+            if (solution.isPresent()) {
+                cache.putAll(start, solution.get());
+            }
+            return solution;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Checks if the last search was answered by the cache.
+     *
+     * @return True if the last solution was found in the cache, otherwise false.
+     */
+    public boolean isCacheHit() {
+        return hit;
+    }
+
+    /**
+     * Returns the cache of the solver.
+     *
+     * @return The cache.
+     */
+    public SolutionCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public long getExpandedCount() {
+        return hit ? 0 : solver.getExpandedCount();
+    }
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        solver.setSearchListener(listener);
+    }
+
+    @Override
+    public void setSearchControl(SearchControl control) {
+        solver.setSearchControl(control);
+    }
+
+    @Override
+    public Optional<SearchMetrics> getMetrics() {
+        return hit ? Optional.empty() : solver.getMetrics();
+    }
+}
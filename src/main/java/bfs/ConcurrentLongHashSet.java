@@ -0,0 +1,144 @@
+package bfs;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A set of non-zero primitive {@code long} values that can be added to by several threads at once.
+ * <p>
+ * The values live in an open-addressing table with linear probing whose slots are claimed with a single
+ * compare-and-set, so adding never blocks. The table does not grow on its own: callers make room for
+ * the values they are about to add with {@link #ensureCapacity(long)} while no other thread uses the set.
+ */
+public class ConcurrentLongHashSet {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private AtomicLongArray table;
+    private int mask;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Constructs an empty set that can hold the given number of values.
+     *
+     * @param expectedSize The expected number of values.
+     */
+    public ConcurrentLongHashSet(long expectedSize) {
+        table = new AtomicLongArray(capacityFor(expectedSize));
+        mask = table.length() - 1;
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value The value to add, which must not be zero.
+     * @return True if the value was not yet in the set, otherwise false.
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            throw new IllegalArgumentException("Zero cannot be stored");
+        }
+        int i = indexOf(value);
+        while (true) {
+            long current = table.get(i);
+            if (current == value) {
+                return false;
+            }
+            if (current == EMPTY) {
+                if (table.compareAndSet(i, EMPTY, value)) {
+                    size.increment();
+                    return true;
+                }
+                continue;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Checks if a value is in the set.
+     *
+     * @param value The value to look for.
+     * @return True if the value is in the set, otherwise false.
+     */
+    public boolean contains(long value) {
+        int i = indexOf(value);
+        while (true) {
+            long current = table.get(i);
+            if (current == value) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return The number of values in the set.
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * Returns the number of slots of the table.
+     *
+     * @return The capacity of the table, which is larger than the number of values it holds.
+     */
+    public int capacity() {
+        return table.length();
+    }
+
+    /**
+     * Returns the number of values that can still be added without exceeding the load factor.
+     *
+     * @return The number of further values the table has room for.
+     */
+    public long remainingCapacity() {
+        return Math.max(0, (long) (table.length() * LOAD_FACTOR) - size());
+    }
+
+    /**
+     * Grows the table so that the given number of further values can be added without exceeding its load factor.
+     * Must not be called while other threads add values.
+     *
+     * @param additional The number of values that may be added.
+     */
+    public void ensureCapacity(long additional) {
+        int capacity = capacityFor(size() + additional);
+        if (capacity <= table.length()) {
+            return;
+        }
+        AtomicLongArray old = table;
+        table = new AtomicLongArray(capacity);
+        mask = capacity - 1;
+        for (int j = 0; j < old.length(); j++) {
+            long value = old.get(j);
+            if (value != EMPTY) {
+                int i = indexOf(value);
+                while (table.get(i) != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                table.set(i, value);
+            }
+        }
+    }
+
+    private int indexOf(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private static int capacityFor(long size) {
+        long capacity = Long.highestOneBit(Math.max(16, (long) (size / LOAD_FACTOR)) - 1) << 1;
+        if (capacity > 1 << 30) {
+            throw new IllegalStateException("Too many states: " + size);
+        }
+        return (int) capacity;
+    }
+}
@@ -0,0 +1,36 @@
+package bfs;
+
+/**
+ * An estimate of the number of moves needed to solve a state encoded by {@link model.PackedBoard}.
+ * <p>
+ * Informed searches only return optimal solutions if the estimate is admissible, that is, it never
+ * exceeds the real distance to the nearest solved state.
+ */
+@FunctionalInterface
+public interface Heuristic {
+
+    /**
+     * Estimates the number of moves needed to solve a state.
+     *
+     * @param state The packed state.
+     * @return A lower bound of the distance of the state from the nearest solved state.
+     */
+    int estimate(long state);
+
+    /**
+     * Combines heuristics by taking the largest of their estimates, which is admissible if each of them is.
+     *
+     * @param heuristics The heuristics to combine.
+     * @return The combined heuristic.
+     */
+    static Heuristic max(Heuristic... heuristics) {
+        Heuristic[] copy = heuristics.clone();
+        return state -> {
+            int estimate = 0;
+            for (Heuristic heuristic : copy) {
+                estimate = Math.max(estimate, heuristic.estimate(state));
+            }
+            return estimate;
+        };
+    }
+}
@@ -0,0 +1,216 @@
+package bfs;
+
+import model.PackedBoard;
+import model.Position;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Iterative deepening A* search over states encoded by {@link PackedBoard}.
+ * <p>
+ * Only the states of the current path are kept, so the memory used by the search is proportional to the
+ * length of the solution. Each iteration is a depth-first search that cuts off the states whose estimated
+ * total cost exceeds the bound, the next bound being the smallest cost that was cut off.
+ * <p>
+ * The puzzle has many transpositions, so the search can optionally use a transposition table of a fixed
+ * size. It remembers the depth at which a state was last reached in the current iteration, and a state
+ * reached again at the same or a greater depth is not searched a second time.
+ * <p>
+ * The {@link SearchMetrics} of the search record its counters at every check of the {@link SearchControl}
+ * and at the end. Their lower bound is the bound of the current iteration, as every earlier iteration has
+ * ruled out the shorter solutions.
+ */
+public class IdaStarSearch implements Solver {
+
+    private static final int FOUND = -1;
+
+    private final PackedBoard board;
+    private final Heuristic heuristic;
+    private final long[] tableStates;
+    private final int[] tableEntries;
+    private int iteration;
+    private long[] path;
+    private long[] successors;
+    private int length;
+    private long expanded;
+    private long generated;
+    private int bound;
+    private SearchControl control;
+    private SearchMetrics metrics;
+
+    /**
+     * Constructs a new {@code IdaStarSearch} guided by {@link MisplacedDisks}.
+     */
+    public IdaStarSearch() {
+        this(new MisplacedDisks());
+    }
+
+    /**
+     * Constructs a new {@code IdaStarSearch} guided by the given heuristic.
+     *
+     * @param heuristic An admissible heuristic.
+     */
+    public IdaStarSearch(Heuristic heuristic) {
+        this(heuristic, 0);
+    }
+
+    /**
+     * Constructs a new {@code IdaStarSearch} on the standard board guided by the given heuristic that uses
+     * a transposition table.
+     *
+     * @param heuristic An admissible heuristic.
+     * @param tableBits The base two logarithm of the number of entries of the transposition table,
+     *                  or {@code 0} for searching without a table.
+     */
+    public IdaStarSearch(Heuristic heuristic, int tableBits) {
+        this(PackedBoard.STANDARD, heuristic, tableBits);
+    }
+
+    /**
+     * Constructs a new {@code IdaStarSearch} guided by the given heuristic that uses a transposition table.
+     *
+     * @param board     The encoding of the states.
+     * @param heuristic An admissible heuristic.
+     * @param tableBits The base two logarithm of the number of entries of the transposition table,
+     *                  or {@code 0} for searching without a table.
+     */
+    public IdaStarSearch(PackedBoard board, Heuristic heuristic, int tableBits) {
+        this.board = board;
+        this.heuristic = heuristic;
+        this.tableStates = new long[tableBits == 0 ? 0 : 1 << tableBits];
+        this.tableEntries = new int[tableStates.length];
+    }
+
+    /**
+     * Searches for the shortest solution from the given packed state.
+     *
+     * @param start The packed state to start from.
+     * @return The moves of an optimal solution, or an empty optional if the puzzle cannot be solved.
+     * @throws SearchAbortedException If the {@link SearchControl} of the search stops it.
+     */
+    @Override
+    public Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search(long start) {
+        path = new long[64];
+        path[0] = start;
+        successors = new long[path.length * board.maxSuccessors()];
+        expanded = 0;
+        generated = 0;
+        Arrays.fill(tableStates, 0L);
+        iteration = 0;
+        bound = heuristic.estimate(start);
+        metrics = new SearchMetrics("idastar", null);
+        try {
+            var solution = iterations();
+            metrics.progress(expanded, generated, length + 1, memoryBytes(), bound);
+            metrics.finish(solution.isPresent() ? SearchOutcome.SOLVED : SearchOutcome.UNSOLVABLE,
+                    solution.map(List::size).orElse(-1));
+            return solution;
+        } catch (SearchAbortedException e) {
+            // The check that stopped the search has just reported the progress along the path it was on.
+            metrics.finish(e.getOutcome(), -1);
+            throw e;
+        }
+    }
+
+    private Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> iterations() {
+        while (true) {
+            iteration++;
+            int result = search(0, bound);
+            if (result == FOUND) {
+                return Optional.of(Paths.toMoves(board, Arrays.copyOf(path, length + 1)));
+            }
+            if (result == Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+            bound = result;
+        }
+    }
+
+    @Override
+    public long getExpandedCount() {
+        return expanded;
+    }
+
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    @Override
+    public Optional<SearchMetrics> getMetrics() {
+        return Optional.ofNullable(metrics);
+    }
+
+    private long memoryBytes() {
+        return (long) tableStates.length * (Long.BYTES + Integer.BYTES)
+                + (long) path.length * Long.BYTES + (long) successors.length * Long.BYTES;
+    }
+
+    private int search(int depth, int bound) {
+        long state = path[depth];
+        int cost = depth + heuristic.estimate(state);
+        if (cost > bound) {
+            return cost;
+        }
+        if (board.isSolved(state)) {
+            length = depth;
+            return FOUND;
+        }
+        if (isTransposition(state, depth)) {
+            return Integer.MAX_VALUE;
+        }
+        expanded++;
+        if (control != null && (expanded & SearchControl.CHECK_MASK) == 0) {
+            metrics.progress(expanded, generated, depth + 1, memoryBytes(), bound);
+            control.check(depth + 1, memoryBytes());
+        }
+        if (depth + 1 == path.length) {
+            path = Arrays.copyOf(path, path.length << 1);
+            successors = Arrays.copyOf(successors, successors.length << 1);
+        }
+        int offset = depth * board.maxSuccessors();
+        int end = offset + board.successors(state, successors, offset);
+        generated += end - offset;
+        int next = Integer.MAX_VALUE;
+        for (int i = offset; i < end; i++) {
+            long successor = successors[i];
+            if (isOnPath(successor, depth)) {
+                continue;
+            }
+            path[depth + 1] = successor;
+            int result = search(depth + 1, bound);
+            if (result == FOUND) {
+                return FOUND;
+            }
+            next = Math.min(next, result);
+        }
+        return next;
+    }
+
+    private boolean isTransposition(long state, int depth) {
+        if (tableStates.length == 0) {
+            return false;
+        }
+        long h = state * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & (tableStates.length - 1);
+        int entry = iteration << 16 | depth;
+        if (tableStates[slot] == state && tableEntries[slot] >>> 16 == iteration && (tableEntries[slot] & 0xFFFF) <= depth) {
+            return true;
+        }
+        tableStates[slot] = state;
+        tableEntries[slot] = entry;
+        return false;
+    }
+
+    private boolean isOnPath(long state, int depth) {
+        for (int i = depth - 1; i >= 0; i--) {
+            if (path[i] == state) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
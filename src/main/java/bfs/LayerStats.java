@@ -0,0 +1,27 @@
+package bfs;
+
+/**
+ * The counters of one completed layer of a breadth-first search.
+ *
+ * @param direction    The side of the search that expanded the layer, {@code "forward"} or {@code "backward"}.
+ * @param depth        The distance of the states of the layer from the roots of their side.
+ * @param states       The number of states in the layer, which are the frontier expanded next.
+ * @param expanded     The number of states of the layer whose successors were generated.
+ * @param generated    The number of successors generated while expanding the layer.
+ * @param duplicates   The number of generated successors that had already been discovered.
+ * @param visited      The number of distinct states discovered so far by the whole search.
+ * @param memoryBytes  The number of bytes allocated for storing the states after the layer.
+ * @param elapsedNanos The time it took to expand the layer in nanoseconds.
+ */
+public record LayerStats(String direction, int depth, long states, long expanded, long generated,
+                         long duplicates, long visited, long memoryBytes, long elapsedNanos) {
+
+    /**
+     * Returns the share of the generated successors that had already been discovered.
+     *
+     * @return The duplicate hit rate between {@code 0} and {@code 1}.
+     */
+    public double duplicateRate() {
+        return generated == 0 ? 0 : (double) duplicates / generated;
+    }
+}
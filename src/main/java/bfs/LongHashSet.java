@@ -0,0 +1,138 @@
+package bfs;
+
+import java.util.Arrays;
+
+/**
+ * A set of primitive {@code long} values backed by a single open-addressing table with linear probing.
+ * <p>
+ * Unlike a {@code HashSet<Long>} it allocates nothing per element, which makes it suitable
+ * for holding millions of packed puzzle states.
+ */
+public class LongHashSet {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private int threshold;
+    private boolean containsEmpty;
+
+    /**
+     * Constructs an empty set with a small initial capacity.
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty set that can hold the given number of elements without resizing.
+     *
+     * @param expectedSize The expected number of elements.
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(Math.max(16, Integer.highestOneBit((int) (expectedSize / LOAD_FACTOR)) << 1));
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value The value to add.
+     * @return True if the value was not yet in the set, otherwise false.
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        int i = indexOf(value);
+        while (table[i] != EMPTY) {
+            if (table[i] == value) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        table[i] = value;
+        if (++size > threshold) {
+            rehash(table.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a value is in the set.
+     *
+     * @param value The value to look for.
+     * @return True if the value is in the set, otherwise false.
+     */
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsEmpty;
+        }
+        int i = indexOf(value);
+        while (table[i] != EMPTY) {
+            if (table[i] == value) {
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of values in the set.
+     *
+     * @return The number of values in the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every value from the set, keeping its capacity.
+     */
+    public void clear() {
+        Arrays.fill(table, EMPTY);
+        size = 0;
+        containsEmpty = false;
+    }
+
+    /**
+     * Returns the number of slots of the underlying table.
+     *
+     * @return The capacity of the table.
+     */
+    public int capacity() {
+        return table.length;
+    }
+
+    private int indexOf(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        long[] old = table;
+        allocate(capacity);
+        for (long value : old) {
+            if (value != EMPTY) {
+                int i = indexOf(value);
+                while (table[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = value;
+            }
+        }
+    }
+}
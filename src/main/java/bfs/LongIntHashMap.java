@@ -0,0 +1,132 @@
+package bfs;
+
+/**
+ * A map from primitive {@code long} keys to non-negative {@code int} values backed by
+ * open-addressing tables with linear probing.
+ * <p>
+ * Searches use it to find the index of an already discovered state, for example to join
+ * the two halves of a path found by a bidirectional search.
+ */
+public class LongIntHashMap {
+
+    /**
+     * The value returned by {@link #get(long)} for keys that are not in the map.
+     */
+    public static final int NO_VALUE = -1;
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    private int emptyKeyValue = NO_VALUE;
+
+    /**
+     * Constructs an empty map that can hold the given number of entries without resizing.
+     *
+     * @param expectedSize The expected number of entries.
+     */
+    public LongIntHashMap(int expectedSize) {
+        allocate(Math.max(16, Integer.highestOneBit((int) (expectedSize / LOAD_FACTOR)) << 1));
+    }
+
+    /**
+     * Associates a value with a key unless the key is already in the map.
+     *
+     * @param key   The key.
+     * @param value The non-negative value.
+     * @return True if the key was not yet in the map, otherwise false.
+     */
+    public boolean putIfAbsent(long key, int value) {
+        if (key == EMPTY) {
+            if (emptyKeyValue != NO_VALUE) {
+                return false;
+            }
+            emptyKeyValue = value;
+            size++;
+            return true;
+        }
+        int i = indexOf(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return false;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value associated with a key.
+     *
+     * @param key The key.
+     * @return The value associated with the key, or {@link #NO_VALUE} if the key is not in the map.
+     */
+    public int get(long key) {
+        if (key == EMPTY) {
+            return emptyKeyValue;
+        }
+        int i = indexOf(key);
+        while (keys[i] != EMPTY) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return The number of entries in the map.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots of the underlying tables.
+     *
+     * @return The capacity of the tables.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    private int indexOf(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != EMPTY) {
+                int i = indexOf(oldKeys[j]);
+                while (keys[i] != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+}
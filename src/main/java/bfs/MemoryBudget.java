@@ -0,0 +1,27 @@
+package bfs;
+
+/**
+ * Helper methods for deriving state limits from the memory available to the virtual machine.
+ */
+final class MemoryBudget {
+
+    /**
+     * The share of the maximum heap size a search may fill with states.
+     */
+    private static final double HEAP_SHARE = 0.5;
+
+    private MemoryBudget() {
+    }
+
+    /**
+     * Returns the number of states that fit into the default budget.
+     *
+     * @param bytesPerState The number of bytes a search needs for every stored state, including the
+     *                      spare capacity of its arrays and hash tables.
+     * @return The largest number of states a search should store.
+     */
+    static int maxStates(int bytesPerState) {
+        long states = (long) (Runtime.getRuntime().maxMemory() * HEAP_SHARE) / bytesPerState;
+        return (int) Math.min(states, Integer.MAX_VALUE - 8);
+    }
+}
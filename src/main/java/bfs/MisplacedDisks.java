@@ -0,0 +1,73 @@
+package bfs;
+
+import model.PackedBoard;
+
+/**
+ * Counts the disks that are not yet in their final place.
+ * <p>
+ * A disk is in its final place if it lies on the same rod and at the same level as in a solved state
+ * and so does every disk below it. Every other disk has to be moved at least once, so the count is
+ * admissible. A single move changes it by at most one, which also makes it consistent.
+ * <p>
+ * The stacks compared are read into arrays kept by the heuristic, so an estimate allocates nothing. An
+ * instance must therefore not be shared between threads.
+ */
+public class MisplacedDisks implements Heuristic {
+
+    private final PackedBoard board;
+    private final long[] goals;
+    private final int[] stack;
+    private final int[] goalStack;
+
+    /**
+     * Constructs a new {@code MisplacedDisks} heuristic for the solved state of the standard board.
+     */
+    public MisplacedDisks() {
+        this(PackedBoard.STANDARD);
+    }
+
+    /**
+     * Constructs a new {@code MisplacedDisks} heuristic for the states returned by {@link PackedBoard#solvedStates()}.
+     *
+     * @param board The encoding of the states.
+     */
+    public MisplacedDisks(PackedBoard board) {
+        this(board, board.solvedStates());
+    }
+
+    /**
+     * Constructs a new {@code MisplacedDisks} heuristic for the given goal states.
+     *
+     * @param board The encoding of the states.
+     * @param goals The packed goal states.
+     */
+    public MisplacedDisks(PackedBoard board, long[] goals) {
+        this.board = board;
+        this.goals = goals.clone();
+        this.stack = new int[board.config().rowSize()];
+        this.goalStack = new int[stack.length];
+    }
+
+    @Override
+    public int estimate(long state) {
+        int estimate = Integer.MAX_VALUE;
+        for (long goal : goals) {
+            estimate = Math.min(estimate, misplaced(state, goal));
+        }
+        return estimate;
+    }
+
+    private int misplaced(long state, long goal) {
+        int misplaced = 0;
+        for (int rod = 0; rod < board.config().rods(); rod++) {
+            int height = board.stack(state, rod, stack);
+            int goalHeight = board.stack(goal, rod, goalStack);
+            int level = 0;
+            while (level < height && level < goalHeight && stack[level] == goalStack[level]) {
+                level++;
+            }
+            misplaced += height - level;
+        }
+        return misplaced;
+    }
+}
@@ -0,0 +1,204 @@
+package bfs;
+
+import model.PackedBoard;
+import model.Position;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Breadth-first search over states encoded by {@link PackedBoard}.
+ * <p>
+ * Discovered states are appended to a primitive array in the order they are found, which makes the
+ * array itself the queue of the search. The index of the parent of every state is kept in a parallel
+ * {@code int} array, so the moves of the solution are only reconstructed once the goal is reached.
+ * <p>
+ * Only the canonical form of every state is stored, see {@link PackedBoard#canonical(long)}, so symmetric
+ * states are explored once, and the path of canonical states is unfolded into the moves from the start.
+ * <p>
+ * Every stored state costs about {@value #BYTES_PER_STATE} bytes, and the search gives up with a
+ * {@link StateLimitExceededException} once it would store more states than its budget allows.
+ * <p>
+ * The counters of every layer are collected by the {@link SearchMetrics} of the search.
+ */
+public class PackedBreadthFirstSearch implements Solver {
+
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int BYTES_PER_STATE = 40;
+
+    private final PackedBoard board;
+    private final Symmetry symmetry;
+    private final int maxStates;
+    private long[] states;
+    private int[] parents;
+    private int count;
+    private long expanded;
+    private long generated;
+    private LongHashSet visited;
+    private SearchListener listener;
+    private SearchControl control;
+    private SearchMetrics metrics;
+
+    /**
+     * Constructs a new {@code PackedBreadthFirstSearch} on the standard board.
+     */
+    public PackedBreadthFirstSearch() {
+        this(PackedBoard.STANDARD);
+    }
+
+    /**
+     * Constructs a new {@code PackedBreadthFirstSearch} whose budget is half of the maximum heap size.
+     *
+     * @param board The encoding of the states.
+     */
+    public PackedBreadthFirstSearch(PackedBoard board) {
+        this(board, MemoryBudget.maxStates(BYTES_PER_STATE));
+    }
+
+    /**
+     * Constructs a new {@code PackedBreadthFirstSearch}.
+     *
+     * @param board     The encoding of the states.
+     * @param maxStates The largest number of states the search may store.
+     */
+    public PackedBreadthFirstSearch(PackedBoard board, int maxStates) {
+        this.board = board;
+        this.symmetry = new Symmetry(board);
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Searches for the shortest solution from the given packed state.
+     *
+     * @param start The packed state to start from.
+     * @return The moves of an optimal solution, or an empty optional if the puzzle cannot be solved.
+     * @throws StateLimitExceededException If the search needs more states than its budget.
+     * @throws SearchAbortedException       If the {@link SearchControl} of the search stops it.
+     */
+    @Override
+    public Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search(long start) {
+        states = new long[INITIAL_CAPACITY];
+        parents = new int[INITIAL_CAPACITY];
+        count = 0;
+        expanded = 0;
+        generated = 0;
+        visited = new LongHashSet(INITIAL_CAPACITY);
+        metrics = new SearchMetrics("bfs", listener);
+        try {
+            var solution = layers(start);
+            metrics.finish(solution.isPresent() ? SearchOutcome.SOLVED : SearchOutcome.UNSOLVABLE,
+                    solution.map(List::size).orElse(-1));
+            return solution;
+        } catch (SearchAbortedException e) {
+            metrics.finish(e.getOutcome(), -1);
+            throw e;
+        }
+    }
+
+    private Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> layers(long start) {
+        long root = symmetry.canonical(start);
+        visited.add(root);
+        append(root, -1);
+        if (board.isSolved(root)) {
+            completeLayer(0, 1);
+            return Optional.of(path(start, 0));
+        }
+        long[] successors = new long[board.maxSuccessors()];
+        int depth = 0;
+        int layerStart = 0;
+        int layerEnd = count;
+        for (int head = 0; head < count; head++) {
+            if (head == layerEnd) {
+                completeLayer(depth++, layerEnd - layerStart);
+                layerStart = layerEnd;
+                layerEnd = count;
+            }
+            expanded++;
+            if (control != null && (head == layerStart || (expanded & SearchControl.CHECK_MASK) == 0)) {
+                control.check(visited.size(), memoryBytes());
+            }
+            int successorCount = board.successors(states[head], successors);
+            for (int i = 0; i < successorCount; i++) {
+                long next = symmetry.canonical(successors[i]);
+                generated++;
+                if (visited.add(next)) {
+                    append(next, head);
+                    if (board.isSolved(next)) {
+                        completeLayer(depth, layerEnd - layerStart);
+                        return Optional.of(path(start, count - 1));
+                    }
+                }
+            }
+        }
+        completeLayer(depth, layerEnd - layerStart);
+        return Optional.empty();
+    }
+
+    private void completeLayer(int depth, int layerStates) {
+        long duplicates = generated - (visited.size() - 1);
+        metrics.layerCompleted("forward", depth, layerStates, expanded, generated, duplicates, visited.size(),
+                memoryBytes());
+    }
+
+    private long memoryBytes() {
+        return (long) states.length * Long.BYTES + (long) parents.length * Integer.BYTES
+                + (long) visited.capacity() * Long.BYTES;
+    }
+
+    /**
+     * Returns the number of distinct states discovered by the last search.
+     *
+     * @return The number of visited states.
+     */
+    public int getVisitedCount() {
+        return visited == null ? 0 : visited.size();
+    }
+
+    @Override
+    public long getExpandedCount() {
+        return expanded;
+    }
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    @Override
+    public Optional<SearchMetrics> getMetrics() {
+        return Optional.ofNullable(metrics);
+    }
+
+    private void append(long state, int parent) {
+        if (count == maxStates) {
+            throw new StateLimitExceededException(maxStates);
+        }
+        if (count == states.length) {
+            int capacity = (int) Math.min((long) count << 1, maxStates);
+            states = Arrays.copyOf(states, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+        }
+        states[count] = state;
+        parents[count] = parent;
+        count++;
+    }
+
+    private List<TwoPhaseMoveState.TwoPhaseMove<Position>> path(long start, int index) {
+        int length = 0;
+        for (int i = index; i >= 0; i = parents[i]) {
+            length++;
+        }
+        long[] line = new long[length];
+        for (int i = index; i >= 0; i = parents[i]) {
+            line[--length] = states[i];
+        }
+        return Paths.toMoves(board, symmetry.unfold(start, line));
+    }
+}
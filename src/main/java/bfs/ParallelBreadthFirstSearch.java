@@ -0,0 +1,341 @@
+package bfs;
+
+import model.PackedBoard;
+import model.Position;
+import model.TowerPuzzleState;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Level-synchronous breadth-first search over states encoded by {@link PackedBoard} that expands each layer
+ * on a {@link ForkJoinPool}.
+ * <p>
+ * The frontier is split into chunks that are expanded by separate tasks. Duplicates are filtered by a
+ * {@link ConcurrentLongHashSet} shared by all tasks, and every task collects the states it discovered
+ * into its own buffer, which are concatenated into the next frontier once the layer is complete. As a whole
+ * layer is finished before the next one starts, the first layer containing a solved state gives an optimal
+ * solution. The layers are kept sorted, so the path can be traced back by binary searches.
+ * <p>
+ * The shared set cannot grow while the tasks add to it, so it is grown between slices of the frontier. It is
+ * sized for the number of new states per expanded state measured in the previous layer, and every slice is
+ * short enough that even if all of its successors were new they would fit. Every stored state costs about
+ * {@value #BYTES_PER_STATE} bytes, its slot in the set plus its copy in the layers.
+ * <p>
+ * Only the canonical form of every state is stored, see {@link PackedBoard#canonical(long)}, so symmetric
+ * states are expanded once, and the path of canonical states is unfolded into the moves from the start.
+ * <p>
+ * The {@link SearchControl} is checked at the start of every layer and by every task after each
+ * {@value SearchControl#CHECK_INTERVAL} expanded states. The first task that is stopped records the reason,
+ * the other tasks see it at their next check and stop as well, and the search throws it once the layer has
+ * been abandoned. The search also gives up with a {@link StateLimitExceededException} once it stores more
+ * states than its budget allows, and the counters of every layer are collected by its {@link SearchMetrics}.
+ */
+public class ParallelBreadthFirstSearch implements Solver {
+
+    private static final int CHUNK_SIZE = 1 << 12;
+    private static final int BYTES_PER_STATE = 48;
+    private static final double GROWTH_SLACK = 1.25;
+    private static final long NONE = 0L;
+
+    private final PackedBoard board;
+    private final Symmetry symmetry;
+    private final ForkJoinPool pool;
+    private final long maxStates;
+    private final List<long[]> layers = new ArrayList<>();
+    private final AtomicReference<SearchAbortedException> abort = new AtomicReference<>();
+    private final LongAdder generated = new LongAdder();
+    private long layerBytes;
+    private long expanded;
+    private SearchListener listener;
+    private volatile SearchControl control;
+    private SearchMetrics metrics;
+
+    /**
+     * Constructs a new {@code ParallelBreadthFirstSearch} on the standard board running on the common pool.
+     */
+    public ParallelBreadthFirstSearch() {
+        this(PackedBoard.STANDARD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@code ParallelBreadthFirstSearch} running on the given pool whose budget is half of
+     * the maximum heap size.
+     *
+     * @param board The encoding of the states.
+     * @param pool  The pool expanding the layers.
+     */
+    public ParallelBreadthFirstSearch(PackedBoard board, ForkJoinPool pool) {
+        this(board, pool, MemoryBudget.maxStates(BYTES_PER_STATE));
+    }
+
+    /**
+     * Constructs a new {@code ParallelBreadthFirstSearch} running on the given pool.
+     *
+     * @param board     The encoding of the states.
+     * @param pool      The pool expanding the layers.
+     * @param maxStates The largest number of states the search may store.
+     */
+    public ParallelBreadthFirstSearch(PackedBoard board, ForkJoinPool pool, long maxStates) {
+        this.board = board;
+        this.symmetry = new Symmetry(board);
+        this.pool = pool;
+        this.maxStates = maxStates;
+    }
+
+    /**
+     * Searches for the shortest solution from the given packed state.
+     *
+     * @param start The packed state to start from.
+     * @return The moves of an optimal solution, or an empty optional if the puzzle cannot be solved.
+     * @throws StateLimitExceededException If the search needs more states than its budget.
+     * @throws SearchAbortedException       If the {@link SearchControl} of the search stops it.
+     */
+    @Override
+    public Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search(long start) {
+        layers.clear();
+        abort.set(null);
+        generated.reset();
+        layerBytes = 0;
+        expanded = 0;
+        metrics = new SearchMetrics("parallel", listener);
+        try {
+            var solution = layers(start);
+            metrics.finish(solution.isPresent() ? SearchOutcome.SOLVED : SearchOutcome.UNSOLVABLE,
+                    solution.map(List::size).orElse(-1));
+            return solution;
+        } catch (SearchAbortedException e) {
+            metrics.finish(e.getOutcome(), -1);
+            throw e;
+        }
+    }
+
+    private Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> layers(long start) {
+        var visited = new ConcurrentLongHashSet(CHUNK_SIZE);
+        long root = symmetry.canonical(start);
+        visited.add(root);
+        long[] frontier = {root};
+        addLayer(frontier);
+        if (board.isSolved(root)) {
+            completeLayer(0, 1, visited);
+            return Optional.of(path(start, root));
+        }
+        int depth = 0;
+        double growth = board.maxSuccessors();
+        while (frontier.length > 0) {
+            var control = this.control;
+            if (control != null) {
+                control.check(visited.size(), memoryBytes(visited));
+            }
+            var buffers = new ConcurrentLinkedQueue<long[]>();
+            var goal = new AtomicLong(NONE);
+            int sliceStart = 0;
+            while (sliceStart < frontier.length) {
+                int remaining = frontier.length - sliceStart;
+                visited.ensureCapacity((long) Math.ceil(remaining * growth * GROWTH_SLACK)
+                        + (long) CHUNK_SIZE * board.maxSuccessors());
+                int sliceEnd = sliceStart + (int) Math.min(remaining, visited.remainingCapacity() / board.maxSuccessors());
+                pool.invoke(new Expansion(frontier, sliceStart, sliceEnd, visited, buffers, goal));
+                if (abort.get() != null && goal.get() == NONE) {
+                    throw abort.get();
+                }
+                sliceStart = sliceEnd;
+            }
+            expanded += frontier.length;
+            long layerStates = frontier.length;
+            frontier = concat(buffers);
+            growth = (double) frontier.length / layerStates;
+            Arrays.parallelSort(frontier);
+            addLayer(frontier);
+            completeLayer(depth++, layerStates, visited);
+            if (goal.get() != NONE) {
+                return Optional.of(path(start, goal.get()));
+            }
+            if (visited.size() > maxStates) {
+                throw new StateLimitExceededException(maxStates);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void addLayer(long[] layer) {
+        layers.add(layer);
+        layerBytes += (long) layer.length * Long.BYTES;
+    }
+
+    private void completeLayer(int depth, long layerStates, ConcurrentLongHashSet visited) {
+        long visitedCount = visited.size();
+        long generatedCount = generated.sum();
+        metrics.layerCompleted("forward", depth, layerStates, expanded, generatedCount,
+                generatedCount - (visitedCount - 1), visitedCount, memoryBytes(visited));
+    }
+
+    private long memoryBytes(ConcurrentLongHashSet visited) {
+        return (long) visited.capacity() * Long.BYTES + layerBytes;
+    }
+
+    /**
+     * Checks the budget of the search from a task, recording the reason if it has to stop. Once the goal has
+     * been found, the layer is completed whatever the budget, so the solution is not thrown away.
+     *
+     * @return True if the task may go on, otherwise false.
+     */
+    private boolean proceed(ConcurrentLongHashSet visited, AtomicLong goal) {
+        if (goal.get() != NONE) {
+            return true;
+        }
+        if (abort.get() != null) {
+            return false;
+        }
+        try {
+            long visitedCount = visited.size();
+            if (visitedCount > maxStates) {
+                throw new StateLimitExceededException(maxStates);
+            }
+            var control = this.control;
+            if (control != null) {
+                control.check(visitedCount, memoryBytes(visited));
+            }
+            return true;
+        } catch (SearchAbortedException e) {
+            abort.compareAndSet(null, e);
+            return false;
+        }
+    }
+
+    @Override
+    public long getExpandedCount() {
+        return expanded;
+    }
+
+    @Override
+    public void setSearchListener(SearchListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void setSearchControl(SearchControl control) {
+        this.control = control;
+    }
+
+    @Override
+    public Optional<SearchMetrics> getMetrics() {
+        return Optional.ofNullable(metrics);
+    }
+
+    /**
+     * Returns the number of states discovered at each depth by the last search.
+     *
+     * @return The sizes of the layers, the first element being the start state alone.
+     */
+    public long[] getLayerSizes() {
+        return layers.stream().mapToLong(layer -> layer.length).toArray();
+    }
+
+    @Override
+    public void solveAndPrintSolution(TowerPuzzleState state) {
+        Solver.super.solveAndPrintSolution(state);
+        long[] sizes = getLayerSizes();
+        for (int depth = 0; depth < sizes.length; depth++) {
+            System.out.printf("Depth %d: %d%n", depth, sizes[depth]);
+        }
+    }
+
+    private List<TwoPhaseMoveState.TwoPhaseMove<Position>> path(long start, long goal) {
+        long[] line = new long[layers.size()];
+        int depth = layers.size() - 1;
+        line[depth] = goal;
+        long[] neighbors = new long[board.maxSuccessors()];
+        while (depth > 0) {
+            long[] previous = layers.get(depth - 1);
+            int neighborCount = board.successors(line[depth], neighbors);
+            for (int i = 0; i < neighborCount; i++) {
+                long neighbor = symmetry.canonical(neighbors[i]);
+                if (Arrays.binarySearch(previous, neighbor) >= 0) {
+                    line[depth - 1] = neighbor;
+                    break;
+                }
+            }
+            depth--;
+        }
+        return Paths.toMoves(board, symmetry.unfold(start, line));
+    }
+
+    private static long[] concat(Queue<long[]> buffers) {
+        int length = 0;
+        for (long[] buffer : buffers) {
+            length += buffer.length;
+        }
+        long[] result = new long[length];
+        int position = 0;
+        for (long[] buffer : buffers) {
+            System.arraycopy(buffer, 0, result, position, buffer.length);
+            position += buffer.length;
+        }
+        return result;
+    }
+
+    /**
+     * Expands a chunk of the frontier, splitting it further while it is larger than {@link #CHUNK_SIZE}.
+     * The states discovered by a chunk are published as one buffer.
+     */
+    private final class Expansion extends RecursiveAction {
+        private final long[] frontier;
+        private final int start;
+        private final int end;
+        private final ConcurrentLongHashSet visited;
+        private final Queue<long[]> buffers;
+        private final AtomicLong goal;
+
+        private Expansion(long[] frontier, int start, int end, ConcurrentLongHashSet visited, Queue<long[]> buffers, AtomicLong goal) {
+            this.frontier = frontier;
+            this.start = start;
+            this.end = end;
+            this.visited = visited;
+            this.buffers = buffers;
+            this.goal = goal;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > CHUNK_SIZE) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new Expansion(frontier, start, middle, visited, buffers, goal),
+                        new Expansion(frontier, middle, end, visited, buffers, goal));
+                return;
+            }
+            long[] buffer = new long[(end - start) * board.maxSuccessors()];
+            long[] successors = new long[board.maxSuccessors()];
+            int count = 0;
+            long generatedCount = 0;
+            for (int i = start; i < end; i++) {
+                if ((i - start & SearchControl.CHECK_MASK) == 0 && !proceed(visited, goal)) {
+                    break;
+                }
+                int successorCount = board.successors(frontier[i], successors);
+                generatedCount += successorCount;
+                for (int j = 0; j < successorCount; j++) {
+                    long next = symmetry.canonical(successors[j]);
+                    if (visited.add(next)) {
+                        buffer[count++] = next;
+                        if (board.isSolved(next)) {
+                            goal.compareAndSet(NONE, next);
+                        }
+                    }
+                }
+            }
+            generated.add(generatedCount);
+            buffers.add(Arrays.copyOf(buffer, count));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package bfs;
+
+import model.PackedBoard;
+import model.Position;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helper methods for turning sequences of packed states into moves.
+ */
+final class Paths {
+
+    private Paths() {
+    }
+
+    /**
+     * Returns the moves leading through the given states.
+     *
+     * @param board The encoding of the states.
+     * @param line  Packed states, each one reachable from the previous one by a single move.
+     * @return The moves between consecutive states.
+     * @throws IllegalArgumentException If two consecutive states are not connected by a move.
+     */
+    static List<TwoPhaseMoveState.TwoPhaseMove<Position>> toMoves(PackedBoard board, long[] line) {
+        List<TwoPhaseMoveState.TwoPhaseMove<Position>> moves = new ArrayList<>(Math.max(0, line.length - 1));
+        for (int i = 1; i < line.length; i++) {
+            int[] move = board.moveBetween(line[i - 1], line[i]);
+            moves.add(board.toMove(line[i - 1], move[0], move[1]));
+        }
+        return moves;
+    }
+
+    /**
+     * Prints the moves of a solution, one numbered move per line.
+     *
+     * @param moves The moves to print.
+     */
+    static void print(List<TwoPhaseMoveState.TwoPhaseMove<Position>> moves) {
+        for (int i = 0; i < moves.size(); i++) {
+            var move = moves.get(i);
+            System.out.printf("%d. %s - %s%n", i + 1, move.from(), move.to());
+        }
+    }
+}
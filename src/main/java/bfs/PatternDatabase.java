@@ -0,0 +1,119 @@
+package bfs;
+
+import model.Colors;
+import model.PackedBoard;
+
+import java.util.Arrays;
+
+/**
+ * A precomputed table of exact distances in an abstraction of the puzzle that only keeps some of the disks.
+ * <p>
+ * Removing disks from the board only removes constraints, so every move of the full puzzle is either a
+ * move of the abstraction or leaves it unchanged. The distance of the projected state from the projected
+ * goal is therefore an admissible and consistent estimate for the full puzzle. The table is built once by
+ * a breadth-first search that starts from every projected goal state at the same time.
+ */
+public class PatternDatabase implements Heuristic {
+
+    private final PackedBoard abstraction;
+    private final LongIntHashMap distances;
+
+    private PatternDatabase(PackedBoard abstraction, LongIntHashMap distances) {
+        this.abstraction = abstraction;
+        this.distances = distances;
+    }
+
+    /**
+     * Builds the pattern database of the given disks towards the states returned by {@link PackedBoard#solvedStates()}.
+     *
+     * @param board The encoding of the states.
+     * @param disks The indices of the disks kept by the abstraction, see {@link PackedBoard#disk(Colors, int)}.
+     * @return The pattern database.
+     */
+    public static PatternDatabase build(PackedBoard board, int... disks) {
+        return build(board, board.solvedStates(), disks);
+    }
+
+    /**
+     * Builds the pattern database of the largest disks of each color of the standard board.
+     *
+     * @param count The number of disks of each color kept by the abstraction.
+     * @return The pattern database.
+     */
+    public static PatternDatabase ofLargestDisks(int count) {
+        return ofLargestDisks(PackedBoard.STANDARD, count);
+    }
+
+    /**
+     * Builds the pattern database of the largest disks of each color.
+     *
+     * @param board The encoding of the states.
+     * @param count The number of disks of each color kept by the abstraction.
+     * @return The pattern database.
+     */
+    public static PatternDatabase ofLargestDisks(PackedBoard board, int count) {
+        var config = board.config();
+        int[] disks = new int[config.colors() * count];
+        for (int i = 0; i < count; i++) {
+            for (int color = 0; color < config.colors(); color++) {
+                disks[config.colors() * i + color] = board.disk(config.color(color), config.disksPerColor() - i);
+            }
+        }
+        return build(board, disks);
+    }
+
+    /**
+     * Builds the pattern database of the given disks towards the given goal states.
+     *
+     * @param board The encoding of the states.
+     * @param goals The packed goal states.
+     * @param disks The indices of the disks kept by the abstraction, see {@link PackedBoard#disk(Colors, int)}.
+     * @return The pattern database.
+     */
+    public static PatternDatabase build(PackedBoard board, long[] goals, int... disks) {
+        long pattern = 0;
+        for (int disk : disks) {
+            pattern |= 1L << disk;
+        }
+        var abstraction = board.restrict(pattern);
+        long[] states = new long[goals.length];
+        long[] successors = new long[abstraction.maxSuccessors()];
+        int count = 0;
+        var distances = new LongIntHashMap(1 << 10);
+        for (long goal : goals) {
+            long projected = abstraction.project(goal);
+            if (distances.putIfAbsent(projected, 0)) {
+                states[count++] = projected;
+            }
+        }
+        for (int head = 0; head < count; head++) {
+            long state = states[head];
+            int distance = distances.get(state) + 1;
+            int successorCount = abstraction.successors(state, successors);
+            for (int i = 0; i < successorCount; i++) {
+                long next = successors[i];
+                if (distances.putIfAbsent(next, distance)) {
+                    if (count == states.length) {
+                        states = Arrays.copyOf(states, Math.max(16, count << 1));
+                    }
+                    states[count++] = next;
+                }
+            }
+        }
+        return new PatternDatabase(abstraction, distances);
+    }
+
+    @Override
+    public int estimate(long state) {
+        return Math.max(0, distances.get(abstraction.project(state)));
+    }
+
+    /**
+     * Returns the number of abstract states stored in the database.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return distances.size();
+    }
+}
@@ -0,0 +1,58 @@
+package bfs;
+
+import model.PackedBoard;
+import model.PuzzleConfig;
+import model.TowerPuzzleState;
+
+/**
+ * Prints how the breadth-first search scales with the number of disks of each color.
+ * <p>
+ * For every number of disks from one up to the given maximum, the start position of a board with the given
+ * number of rods and colors is solved by a {@link PackedBreadthFirstSearch}, and the number of visited
+ * states, the length of the solution and the time spent are printed as one row. The report of a board stops
+ * at the first size that does not fit into a packed state or into the memory budget of the search.
+ * <p>
+ * Usage: {@code ScalingReport [maxDisksPerColor [rods [colors]]]}. Without arguments it reports up to
+ * {@code 10} disks on the standard three rods with two colors, and on four rods with three colors.
+ */
+public class ScalingReport {
+
+    private static final int DEFAULT_MAX_DISKS = 10;
+
+    public static void main(String[] args) {
+        System.out.printf("Memory budget: %d MiB%n", Runtime.getRuntime().maxMemory() >> 21);
+        if (args.length == 0) {
+            report(DEFAULT_MAX_DISKS, PuzzleConfig.STANDARD.rods(), PuzzleConfig.STANDARD.colors());
+            report(DEFAULT_MAX_DISKS, 4, 3);
+            return;
+        }
+        int maxDisks = Integer.parseInt(args[0]);
+        int rods = args.length > 1 ? Integer.parseInt(args[1]) : PuzzleConfig.STANDARD.rods();
+        int colors = args.length > 2 ? Integer.parseInt(args[2]) : PuzzleConfig.STANDARD.colors();
+        report(maxDisks, rods, colors);
+    }
+
+    private static void report(int maxDisks, int rods, int colors) {
+        System.out.printf("%nRods: %d, colors: %d%n", rods, colors);
+        System.out.printf("%5s %14s %14s %8s %10s%n", "disks", "visited", "expanded", "moves", "millis");
+        for (int disks = 1; disks <= maxDisks; disks++) {
+            var config = new PuzzleConfig(rods, colors, disks);
+            if (!PackedBoard.fits(config)) {
+                System.out.printf("%5d Board does not fit into a packed state%n", disks);
+                return;
+            }
+            var state = new TowerPuzzleState(config);
+            var search = new PackedBreadthFirstSearch(state.getBoard());
+            long started = System.nanoTime();
+            try {
+                var solution = search.search(state);
+                long millis = (System.nanoTime() - started) / 1_000_000;
+                System.out.printf("%5d %14d %14d %8s %10d%n", disks, search.getVisitedCount(), search.getExpandedCount(),
+                        solution.map(moves -> String.valueOf(moves.size())).orElse("-"), millis);
+            } catch (StateLimitExceededException e) {
+                System.out.printf("%5d %s%n", disks, e.getMessage());
+                return;
+            }
+        }
+    }
+}
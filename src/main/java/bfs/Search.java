@@ -1,16 +1,86 @@
 package bfs;
 
-import model.Position;
-import model.TowerPuzzleModel;
-import puzzle.TwoPhaseMoveState;
-import puzzle.solver.BreadthFirstSearch;
+import model.PackedBoard;
+import model.PuzzleConfig;
+import model.TowerPuzzleState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
 
 public class Search {
-    public static void main(String[] args) {
+    private static final int MAX_PATTERN_DISKS = 8;
+
+    public static void main(String[] args) throws IOException {
+        String mode = args.length > 0 ? args[0] : "bfs";
+        var standard = PuzzleConfig.STANDARD;
+        var config = new PuzzleConfig(
+                args.length > 2 ? Integer.parseInt(args[2]) : standard.rods(),
+                args.length > 3 ? Integer.parseInt(args[3]) : standard.colors(),
+                args.length > 1 ? Integer.parseInt(args[1]) : standard.disksPerColor());
+        var state = new TowerPuzzleState(config);
+        var board = state.getBoard();
+        Solver search = switch (mode) {
+            case "bfs" -> new PackedBreadthFirstSearch(board);
+            case "bidirectional" -> new BidirectionalSearch(board);
+            case "parallel" -> new ParallelBreadthFirstSearch(board, ForkJoinPool.commonPool());
+            case "astar" -> new AStarSearch(board, heuristic(board));
+            case "idastar" -> new IdaStarSearch(board, heuristic(board), 20);
+            case "tablebase" -> tablebase(board);
+            default -> throw new IllegalArgumentException("Unknown search mode: " + mode);
+        };
+        var solver = mode.equals("tablebase") ? search
+                : new CachingSolver(search, SolutionCache.open(board, SolutionCache.defaultFile(config)));
+        solver.setSearchListener(Search::printLayer);
+        solver.setSearchControl(new SearchControl(budget()));
+        try {
+            solver.solveAndPrintSolution(state);
+        } catch (SearchAbortedException e) {
+            System.out.println(e.getMessage());
+            solver.getMetrics().ifPresent(metrics ->
+                    System.out.printf("No solution is shorter than %d moves%n", metrics.getLowerBound()));
+        } finally {
+            var metrics = solver.getMetrics();
+            if (metrics.isPresent()) {
+                Path file = Path.of(System.getProperty("bfs.metrics", "search-metrics.json"));
+                Files.writeString(file, metrics.get().toJson());
+                System.out.printf("Visited states: %d, duplicate rate: %.1f%%, %.1f bytes per state, %d ms%n",
+                        metrics.get().getVisitedCount(), metrics.get().getDuplicateRate() * 100,
+                        metrics.get().getBytesPerState(), metrics.get().getElapsedNanos() / 1_000_000);
+                System.out.printf("Metrics written to %s%n", file);
+            }
+        }
+    }
 
+    private static SearchBudget budget() {
+        var timeLimit = System.getProperty("bfs.timeLimit");
+        return SearchBudget.UNLIMITED
+                .withTimeLimit(timeLimit == null ? null : Duration.parse(timeLimit))
+                .withMaxStates(Long.getLong("bfs.maxStates", Long.MAX_VALUE))
+                .withMaxBytes(Long.getLong("bfs.maxBytes", Long.MAX_VALUE));
+    }
 
-        new BreadthFirstSearch<TwoPhaseMoveState.TwoPhaseMove<Position>>().solveAndPrintSolution(new TowerPuzzleModel());
+    private static void printLayer(LayerStats layer) {
+        System.err.printf("%-8s depth %3d: %10d states, %12d visited, %5.1f%% duplicates, %8d KiB, %6d ms%n",
+                layer.direction(), layer.depth(), layer.states(), layer.visited(), layer.duplicateRate() * 100,
+                layer.memoryBytes() / 1024, layer.elapsedNanos() / 1_000_000);
+    }
 
+    private static Heuristic heuristic(PackedBoard board) {
+        var config = board.config();
+        int count = Math.min(config.disksPerColor() - 1, MAX_PATTERN_DISKS / config.colors());
+        return Heuristic.max(new MisplacedDisks(board), PatternDatabase.ofLargestDisks(board, count));
+    }
 
+    private static Tablebase tablebase(PackedBoard board) throws IOException {
+        var config = board.config();
+        Path file = config.equals(PuzzleConfig.STANDARD) ? Path.of("tablebase.bin")
+                : Path.of("tablebase-%d-%d-%d.bin".formatted(config.rods(), config.colors(), config.disksPerColor()));
+        if (!Files.exists(file)) {
+            Tablebase.generate(board, file);
+        }
+        return Tablebase.open(board, file);
     }
 }
@@ -0,0 +1,29 @@
+package bfs;
+
+/**
+ * Thrown when a search stops before it could decide whether the puzzle can be solved.
+ */
+public class SearchAbortedException extends RuntimeException {
+
+    private final SearchOutcome outcome;
+
+    /**
+     * Constructs a new {@code SearchAbortedException}.
+     *
+     * @param outcome The reason the search stopped.
+     * @param message The detail message.
+     */
+    public SearchAbortedException(SearchOutcome outcome, String message) {
+        super(message);
+        this.outcome = outcome;
+    }
+
+    /**
+     * Returns the reason the search stopped.
+     *
+     * @return One of the outcomes other than {@link SearchOutcome#SOLVED} and {@link SearchOutcome#UNSOLVABLE}.
+     */
+    public SearchOutcome getOutcome() {
+        return outcome;
+    }
+}
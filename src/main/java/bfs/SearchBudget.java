@@ -0,0 +1,62 @@
+package bfs;
+
+import java.time.Duration;
+
+/**
+ * The limits a search must stay within.
+ *
+ * @param timeLimit The longest time the search may take, or {@code null} for no limit.
+ * @param maxStates The largest number of states the search may store.
+ * @param maxBytes  The largest number of bytes the search may allocate for storing states.
+ */
+public record SearchBudget(Duration timeLimit, long maxStates, long maxBytes) {
+
+    /**
+     * The budget without any limit.
+     */
+    public static final SearchBudget UNLIMITED = new SearchBudget(null, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Constructs a new {@code SearchBudget}.
+     *
+     * @throws IllegalArgumentException If a limit is negative.
+     */
+    public SearchBudget {
+        if (timeLimit != null && timeLimit.isNegative()) {
+            throw new IllegalArgumentException("Negative time limit: " + timeLimit);
+        }
+        if (maxStates < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("Negative state or byte limit");
+        }
+    }
+
+    /**
+     * Returns a copy of this budget with another time limit.
+     *
+     * @param timeLimit The longest time the search may take, or {@code null} for no limit.
+     * @return The new budget.
+     */
+    public SearchBudget withTimeLimit(Duration timeLimit) {
+        return new SearchBudget(timeLimit, maxStates, maxBytes);
+    }
+
+    /**
+     * Returns a copy of this budget with another state limit.
+     *
+     * @param maxStates The largest number of states the search may store.
+     * @return The new budget.
+     */
+    public SearchBudget withMaxStates(long maxStates) {
+        return new SearchBudget(timeLimit, maxStates, maxBytes);
+    }
+
+    /**
+     * Returns a copy of this budget with another memory limit.
+     *
+     * @param maxBytes The largest number of bytes the search may allocate for storing states.
+     * @return The new budget.
+     */
+    public SearchBudget withMaxBytes(long maxBytes) {
+        return new SearchBudget(timeLimit, maxStates, maxBytes);
+    }
+}
@@ -0,0 +1,42 @@
+package bfs;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning a whole instrumented search.
+ */
+@Name("bfs.SearchCompleted")
+@Label("Search Completed")
+@Category({"Tower Puzzle", "Search"})
+@Description("A search has found a solution, proved there is none or exceeded its budget")
+class SearchCompletedEvent extends jdk.jfr.Event {
+
+    @Label("Solver")
+    String solver;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Solution Length")
+    int solutionLength;
+
+    @Label("Expanded")
+    long expanded;
+
+    @Label("Generated")
+    long generated;
+
+    @Label("Duplicates")
+    long duplicates;
+
+    @Label("Visited")
+    long visited;
+
+    @Label("Peak Memory")
+    @DataAmount
+    long peakMemoryBytes;
+}
@@ -0,0 +1,90 @@
+package bfs;
+
+/**
+ * Lets a running search be cancelled and keeps it within a {@link SearchBudget}.
+ * <p>
+ * The time limit starts to run when the control is constructed. Searches call {@link #check(long, long)}
+ * after every {@value #CHECK_INTERVAL} expanded states and at the end of every layer, so they stop
+ * shortly after the budget runs out. Between two checks the memory of a search may still double when
+ * its arrays grow.
+ */
+public final class SearchControl {
+
+    /**
+     * The number of expanded states between two checks.
+     */
+    static final int CHECK_INTERVAL = 1024;
+
+    /**
+     * The mask selecting the expansions that are followed by a check.
+     */
+    static final int CHECK_MASK = CHECK_INTERVAL - 1;
+
+    private final SearchBudget budget;
+    private final long deadline;
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs a new {@code SearchControl} whose time limit starts now.
+     *
+     * @param budget The limits of the search.
+     */
+    public SearchControl(SearchBudget budget) {
+        this.budget = budget;
+        this.deadline = budget.timeLimit() == null ? Long.MAX_VALUE
+                : System.nanoTime() + Math.min(budget.timeLimit().toNanos(), Long.MAX_VALUE >> 1);
+    }
+
+    /**
+     * Returns the limits of the search.
+     *
+     * @return The budget.
+     */
+    public SearchBudget getBudget() {
+        return budget;
+    }
+
+    /**
+     * Asks the search to stop at its next check. Can be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Checks if {@link #cancel()} has been called.
+     *
+     * @return True if the search has been asked to stop, otherwise false.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Stops the search by throwing an exception if it has been cancelled, its thread has been interrupted
+     * or it has run out of its budget. On a virtual thread it also lets other virtual threads run.
+     *
+     * @param visited     The number of states the search stores.
+     * @param memoryBytes The number of bytes the search has allocated for storing states.
+     * @throws SearchAbortedException If the search must stop.
+     */
+    public void check(long visited, long memoryBytes) {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            throw new SearchAbortedException(SearchOutcome.CANCELLED, "Search cancelled");
+        }
+        if (visited > budget.maxStates()) {
+            throw new StateLimitExceededException(budget.maxStates());
+        }
+        if (memoryBytes > budget.maxBytes()) {
+            throw new SearchAbortedException(SearchOutcome.MEMORY_LIMIT_EXCEEDED,
+                    "Search exceeded its budget of " + budget.maxBytes() + " bytes");
+        }
+        if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            throw new SearchAbortedException(SearchOutcome.DEADLINE_EXCEEDED,
+                    "Search exceeded its time limit of " + budget.timeLimit());
+        }
+        if (Thread.currentThread().isVirtual()) {
+            Thread.yield();
+        }
+    }
+}
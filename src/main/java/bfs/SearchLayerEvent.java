@@ -0,0 +1,50 @@
+package bfs;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event committed for every completed layer of an instrumented search.
+ */
+@Name("bfs.SearchLayer")
+@Label("Search Layer")
+@Category({"Tower Puzzle", "Search"})
+@Description("A layer of a breadth-first search has been expanded")
+class SearchLayerEvent extends jdk.jfr.Event {
+
+    @Label("Solver")
+    String solver;
+
+    @Label("Direction")
+    String direction;
+
+    @Label("Depth")
+    int depth;
+
+    @Label("Layer States")
+    long states;
+
+    @Label("Expanded")
+    long expanded;
+
+    @Label("Generated")
+    long generated;
+
+    @Label("Duplicates")
+    long duplicates;
+
+    @Label("Visited")
+    long visited;
+
+    @Label("Memory")
+    @DataAmount
+    long memoryBytes;
+
+    @Label("Layer Time")
+    @Timespan
+    long elapsedNanos;
+}
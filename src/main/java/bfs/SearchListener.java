@@ -0,0 +1,15 @@
+package bfs;
+
+/**
+ * Receives the counters of a search while it is running.
+ */
+@FunctionalInterface
+public interface SearchListener {
+
+    /**
+     * Called on the searching thread every time a layer has been expanded.
+     *
+     * @param layer The counters of the layer.
+     */
+    void layerCompleted(LayerStats layer);
+}
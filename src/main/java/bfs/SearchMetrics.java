@@ -0,0 +1,282 @@
+package bfs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The counters of one run of a layered search.
+ * <p>
+ * The search reports its cumulative counters after every layer. The metrics turn them into
+ * {@link LayerStats}, pass them to the {@link SearchListener} and commit a {@link SearchLayerEvent}
+ * to the flight recorder. Searches that do not work layer by layer report their counters and the lower
+ * bound they have proved with {@link #progress(long, long, long, long, int)} instead. A
+ * {@link SearchCompletedEvent} spanning the whole run is committed when the search ends. {@link #toJson()} summarizes the run in a machine-readable form.
+ */
+public final class SearchMetrics {
+
+    private final String solver;
+    private final SearchListener listener;
+    private final List<LayerStats> layers = new ArrayList<>();
+    private final SearchCompletedEvent event = new SearchCompletedEvent();
+    private final long startNanos;
+    private long layerStartNanos;
+    private long endNanos;
+    private long expanded;
+    private long generated;
+    private long duplicates;
+    private long visited;
+    private long peakMemoryBytes;
+    private SearchOutcome outcome;
+    private int solutionLength = -1;
+    private int lowerBound;
+
+    /**
+     * Starts measuring a search.
+     *
+     * @param solver   The name of the solver.
+     * @param listener The listener receiving every layer, or {@code null}.
+     */
+    SearchMetrics(String solver, SearchListener listener) {
+        this.solver = solver;
+        this.listener = listener;
+        event.begin();
+        startNanos = System.nanoTime();
+        layerStartNanos = startNanos;
+    }
+
+    /**
+     * Records a completed layer.
+     *
+     * @param direction   The side of the search, {@code "forward"} or {@code "backward"}.
+     * @param depth       The depth of the layer on its side.
+     * @param states      The number of states in the layer.
+     * @param expanded    The number of states expanded by the whole search so far.
+     * @param generated   The number of successors generated by the whole search so far.
+     * @param duplicates  The number of already discovered successors generated so far.
+     * @param visited     The number of distinct states discovered so far.
+     * @param memoryBytes The number of bytes allocated for storing the states.
+     */
+    void layerCompleted(String direction, int depth, long states, long expanded, long generated,
+                        long duplicates, long visited, long memoryBytes) {
+        long now = System.nanoTime();
+        var layer = new LayerStats(direction, depth, states, expanded - this.expanded, generated - this.generated,
+                duplicates - this.duplicates, visited, memoryBytes, now - layerStartNanos);
+        layerStartNanos = now;
+        this.expanded = expanded;
+        this.generated = generated;
+        this.duplicates = duplicates;
+        this.visited = visited;
+        peakMemoryBytes = Math.max(peakMemoryBytes, memoryBytes);
+        layers.add(layer);
+        commit(layer);
+        if (listener != null) {
+            listener.layerCompleted(layer);
+        }
+    }
+
+    /**
+     * Records the counters of a search that does not work layer by layer.
+     *
+     * @param expanded    The number of states expanded by the whole search so far.
+     * @param generated   The number of successors generated by the whole search so far.
+     * @param visited     The number of states the search stores.
+     * @param memoryBytes The number of bytes allocated for storing the states.
+     * @param lowerBound  The length no solution can be shorter than, as proved by the search so far.
+     */
+    void progress(long expanded, long generated, long visited, long memoryBytes, int lowerBound) {
+        this.expanded = expanded;
+        this.generated = generated;
+        this.duplicates = Math.max(0, generated - (visited - 1));
+        this.visited = visited;
+        peakMemoryBytes = Math.max(peakMemoryBytes, memoryBytes);
+        this.lowerBound = Math.max(this.lowerBound, lowerBound);
+    }
+
+    /**
+     * Records the end of the search.
+     *
+     * @param outcome        How the search ended.
+     * @param solutionLength The number of moves of the solution, or {@code -1} if none was found.
+     */
+    void finish(SearchOutcome outcome, int solutionLength) {
+        endNanos = System.nanoTime();
+        this.outcome = outcome;
+        this.solutionLength = solutionLength;
+        event.end();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.outcome = outcome.name();
+            event.solutionLength = solutionLength;
+            event.expanded = expanded;
+            event.generated = generated;
+            event.duplicates = duplicates;
+            event.visited = visited;
+            event.peakMemoryBytes = peakMemoryBytes;
+            event.commit();
+        }
+    }
+
+    private void commit(LayerStats layer) {
+        var layerEvent = new SearchLayerEvent();
+        if (!layerEvent.isEnabled()) {
+            return;
+        }
+        layerEvent.solver = solver;
+        layerEvent.direction = layer.direction();
+        layerEvent.depth = layer.depth();
+        layerEvent.states = layer.states();
+        layerEvent.expanded = layer.expanded();
+        layerEvent.generated = layer.generated();
+        layerEvent.duplicates = layer.duplicates();
+        layerEvent.visited = layer.visited();
+        layerEvent.memoryBytes = layer.memoryBytes();
+        layerEvent.elapsedNanos = layer.elapsedNanos();
+        layerEvent.commit();
+    }
+
+    /**
+     * Returns the name of the solver.
+     *
+     * @return The name of the solver.
+     */
+    public String getSolver() {
+        return solver;
+    }
+
+    /**
+     * Returns the completed layers in the order they were expanded.
+     *
+     * @return An unmodifiable view of the layers.
+     */
+    public List<LayerStats> getLayers() {
+        return Collections.unmodifiableList(layers);
+    }
+
+    /**
+     * Returns the number of expanded states.
+     *
+     * @return The number of states whose successors were generated.
+     */
+    public long getExpandedCount() {
+        return expanded;
+    }
+
+    /**
+     * Returns the number of generated successors.
+     *
+     * @return The number of generated successors, duplicates included.
+     */
+    public long getGeneratedCount() {
+        return generated;
+    }
+
+    /**
+     * Returns the number of generated successors that had already been discovered.
+     *
+     * @return The number of duplicates.
+     */
+    public long getDuplicateCount() {
+        return duplicates;
+    }
+
+    /**
+     * Returns the share of the generated successors that had already been discovered.
+     *
+     * @return The duplicate hit rate between {@code 0} and {@code 1}.
+     */
+    public double getDuplicateRate() {
+        return generated == 0 ? 0 : (double) duplicates / generated;
+    }
+
+    /**
+     * Returns the number of distinct states discovered.
+     *
+     * @return The size of the visited set.
+     */
+    public long getVisitedCount() {
+        return visited;
+    }
+
+    /**
+     * Returns the largest number of bytes allocated for storing the states.
+     *
+     * @return The peak memory of the search in bytes.
+     */
+    public long getPeakMemoryBytes() {
+        return peakMemoryBytes;
+    }
+
+    /**
+     * Returns the number of bytes allocated per discovered state, spare capacity included.
+     *
+     * @return The peak memory divided by the number of visited states.
+     */
+    public double getBytesPerState() {
+        return visited == 0 ? 0 : (double) peakMemoryBytes / visited;
+    }
+
+    /**
+     * Returns the time the search took, or has taken so far if it is still running.
+     *
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return (outcome == null ? System.nanoTime() : endNanos) - startNanos;
+    }
+
+    /**
+     * Returns how the search ended.
+     *
+     * @return The outcome, or {@code null} if the search is still running.
+     */
+    public SearchOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Returns the length of the solution.
+     *
+     * @return The number of moves of the solution, or {@code -1} if none was found.
+     */
+    public int getSolutionLength() {
+        return solutionLength;
+    }
+
+    /**
+     * Returns the length no solution can be shorter than, which is what a search that stopped early
+     * has proved. Every completed layer of either side adds one to the bound, and searches guided by a
+     * heuristic report the smallest estimated total cost they could not rule out.
+     *
+     * @return The lower bound of the length of the optimal solution.
+     */
+    public int getLowerBound() {
+        return Math.max(layers.size() + 1, lowerBound);
+    }
+
+    /**
+     * Returns a JSON object with the totals and every layer of the search.
+     *
+     * @return The summary of the search.
+     */
+    public String toJson() {
+        var sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT,
+                "{\"solver\":\"%s\",\"outcome\":%s,\"solutionLength\":%d,\"lowerBound\":%d,\"elapsedNanos\":%d,"
+                        + "\"expanded\":%d,\"generated\":%d,\"duplicates\":%d,\"duplicateRate\":%.4f,"
+                        + "\"visited\":%d,\"peakMemoryBytes\":%d,\"bytesPerState\":%.1f,\"layers\":[",
+                solver, outcome == null ? "null" : "\"" + outcome.name().toLowerCase(Locale.ROOT) + "\"", solutionLength,
+                getLowerBound(), getElapsedNanos(),
+                expanded, generated, duplicates, getDuplicateRate(), visited, peakMemoryBytes, getBytesPerState()));
+        for (int i = 0; i < layers.size(); i++) {
+            var layer = layers.get(i);
+            sb.append(i == 0 ? "" : ",").append(String.format(Locale.ROOT,
+                    "{\"direction\":\"%s\",\"depth\":%d,\"states\":%d,\"expanded\":%d,\"generated\":%d,"
+                            + "\"duplicates\":%d,\"visited\":%d,\"memoryBytes\":%d,\"elapsedNanos\":%d}",
+                    layer.direction(), layer.depth(), layer.states(), layer.expanded(), layer.generated(),
+                    layer.duplicates(), layer.visited(), layer.memoryBytes(), layer.elapsedNanos()));
+        }
+        return sb.append("]}").toString();
+    }
+}
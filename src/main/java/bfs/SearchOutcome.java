@@ -0,0 +1,37 @@
+package bfs;
+
+/**
+ * The ways a search can end.
+ */
+public enum SearchOutcome {
+
+    /**
+     * A solution was found.
+     */
+    SOLVED,
+
+    /**
+     * Every reachable state was searched without finding a solution.
+     */
+    UNSOLVABLE,
+
+    /**
+     * The search was cancelled or its thread was interrupted.
+     */
+    CANCELLED,
+
+    /**
+     * The search ran out of time.
+     */
+    DEADLINE_EXCEEDED,
+
+    /**
+     * The search would have stored more states than allowed.
+     */
+    STATE_LIMIT_EXCEEDED,
+
+    /**
+     * The search would have allocated more memory than allowed.
+     */
+    MEMORY_LIMIT_EXCEEDED
+}
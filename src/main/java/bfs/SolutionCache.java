@@ -0,0 +1,429 @@
+package bfs;
+
+import model.PackedBoard;
+import model.Position;
+import model.PuzzleConfig;
+import puzzle.TwoPhaseMoveState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent cache of optimal solutions keyed by the packed state they start from.
+ * <p>
+ * The file holds a small header followed by one record per solution: the packed state, the number of moves,
+ * one byte per move holding the source rod in the high and the target rod in the low four bits, and a CRC-32
+ * of all these. Records are only ever appended. Opening the file verifies every record by its checksum and
+ * by replaying its moves to a solved state, skips the records that fail the replay and cuts off the file at
+ * the first record that fails the checksum, which is what an interrupted write leaves behind.
+ * <p>
+ * Solutions are keyed by the canonical form of their start state, see {@link PackedBoard#canonical(long)},
+ * with their moves rotated along, so a single record serves a state and all of its rotations. A file written
+ * by an earlier version keyed by the states themselves is discarded and started anew.
+ * <p>
+ * The offset of every record is kept in memory, and the moves of the most recently used solutions are kept
+ * in a least-recently-used tier in front of the file, so a hit costs no disk access at all. The cache may be
+ * used by several threads.
+ */
+public class SolutionCache implements AutoCloseable {
+
+    /**
+     * The number of solutions kept in memory by default.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+
+    private static final int MAGIC = 0x54575343;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 24;
+    private static final int RECORD_OVERHEAD = Long.BYTES + Short.BYTES + Integer.BYTES;
+    private static final int MAX_MOVES = 0xFFFF;
+    private static final int ROD_BITS = 4;
+    private static final int ROD_MASK = (1 << ROD_BITS) - 1;
+
+    private final PackedBoard board;
+    private final Symmetry symmetry;
+    private final FileChannel channel;
+    private final LongIntHashMap offsets = new LongIntHashMap(1 << 10);
+    private final Map<Long, byte[]> recent;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long size;
+    private long hits;
+    private long misses;
+
+    private SolutionCache(PackedBoard board, FileChannel channel, int capacity) {
+        this.board = board;
+        this.symmetry = new Symmetry(board);
+        this.channel = channel;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the file of the cache of a board used by default.
+     *
+     * @param config The dimensions of the board.
+     * @return {@code solutions.bin} for the standard board, otherwise a name containing the dimensions.
+     */
+    public static Path defaultFile(PuzzleConfig config) {
+        return config.equals(PuzzleConfig.STANDARD) ? Path.of("solutions.bin")
+                : Path.of("solutions-%d-%d-%d.bin".formatted(config.rods(), config.colors(), config.disksPerColor()));
+    }
+
+    /**
+     * Opens a cache with the default capacity, creating its file if it does not exist.
+     *
+     * @param board The encoding of the states.
+     * @param file  The file of the cache.
+     * @return The cache.
+     * @throws IOException If the file cannot be read or written or belongs to another board.
+     */
+    public static SolutionCache open(PackedBoard board, Path file) throws IOException {
+        return open(board, file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Opens a cache, creating its file if it does not exist, and verifies every record.
+     *
+     * @param board    The encoding of the states.
+     * @param file     The file of the cache.
+     * @param capacity The number of solutions kept in memory.
+     * @return The cache.
+     * @throws IOException If the file cannot be read or written or belongs to another board.
+     */
+    public static SolutionCache open(PackedBoard board, Path file, int capacity) throws IOException {
+        var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            var cache = new SolutionCache(board, channel, capacity);
+            cache.load(file);
+            return cache;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void load(Path file) throws IOException {
+        var config = board.config();
+        if (channel.size() < HEADER_SIZE || isEarlierVersion()) {
+            var header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(VERSION)
+                    .putInt(config.rods())
+                    .putInt(config.colors())
+                    .putInt(config.disksPerColor())
+                    .flip();
+            channel.truncate(0);
+            writeFully(header, 0);
+            size = HEADER_SIZE;
+            return;
+        }
+        var header = readFully(0, HEADER_SIZE);
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a solution cache: " + file);
+        }
+        if (header.getInt() != config.rods() || header.getInt() != config.colors()
+                || header.getInt() != config.disksPerColor()) {
+            throw new IOException("Solution cache does not match the board: " + file);
+        }
+        long end = channel.size();
+        long position = HEADER_SIZE;
+        while (position + RECORD_OVERHEAD <= end && position <= Integer.MAX_VALUE) {
+            var prefix = readFully(position, Long.BYTES + Short.BYTES);
+            long state = prefix.getLong();
+            int length = Short.toUnsignedInt(prefix.getShort());
+            if (position + RECORD_OVERHEAD + length > end) {
+                break;
+            }
+            var record = readFully(position, RECORD_OVERHEAD + length);
+            if (!hasValidChecksum(record)) {
+                break;
+            }
+            byte[] moves = new byte[length];
+            record.get(Long.BYTES + Short.BYTES, moves);
+            if (replay(state, moves) != null) {
+                offsets.putIfAbsent(state, (int) position);
+            }
+            position += RECORD_OVERHEAD + length;
+        }
+        if (position < end) {
+            channel.truncate(position);
+        }
+        size = position;
+    }
+
+    private boolean isEarlierVersion() throws IOException {
+        var header = readFully(0, 2 * Integer.BYTES);
+        return header.getInt() == MAGIC && header.getInt() < VERSION;
+    }
+
+    /**
+     * Returns the cached solution from a state.
+     *
+     * @param state The packed state the solution starts from.
+     * @return The moves of the solution, or an empty optional if no solution from the state is cached.
+     * @throws IOException If the record cannot be read.
+     */
+    public Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> get(long state) throws IOException {
+        int rotation = symmetry.canonicalRotation(state);
+        long key = board.rotate(state, rotation);
+        byte[] moves;
+        lock.lock();
+        try {
+            moves = recent.get(key);
+            if (moves == null) {
+                int offset = offsets.get(key);
+                if (offset == LongIntHashMap.NO_VALUE) {
+                    misses++;
+                    return Optional.empty();
+                }
+                moves = read(offset);
+                recent.put(key, moves);
+            }
+            hits++;
+        } finally {
+            lock.unlock();
+        }
+        return Optional.ofNullable(replay(state, rotate(moves, symmetry.inverse(rotation))));
+    }
+
+    /**
+     * Caches a solution unless one from the same state is already cached. The record is written to the file
+     * and forced to the disk immediately.
+     *
+     * @param state The packed state the solution starts from.
+     * @param moves The moves of an optimal solution.
+     * @throws IOException              If the record cannot be written.
+     * @throws IllegalArgumentException If the moves do not solve the puzzle from the state.
+     */
+    public void put(long state, List<TwoPhaseMoveState.TwoPhaseMove<Position>> moves) throws IOException {
+        append(state, moves, 1);
+    }
+
+    /**
+     * Caches the solution from a state together with the solutions from every state along it, which are
+     * the remaining moves of the solution. The records are written to the file at once and forced to the disk
+     * once.
+     *
+     * @param state The packed state the solution starts from.
+     * @param moves The moves of an optimal solution.
+     * @throws IOException              If a record cannot be written.
+     * @throws IllegalArgumentException If the moves do not solve the puzzle from the state.
+     */
+    public void putAll(long state, List<TwoPhaseMoveState.TwoPhaseMove<Position>> moves) throws IOException {
+        if (!moves.isEmpty()) {
+            append(state, moves, moves.size());
+        }
+    }
+
+    /**
+     * Caches the solutions from the first states along a solution. The states are derived by applying the
+     * moves one after the other, so the solution is checked once rather than once per suffix, and the records
+     * of the states not cached yet are written with a single write.
+     */
+    private void append(long state, List<TwoPhaseMoveState.TwoPhaseMove<Position>> moves, int count)
+            throws IOException {
+        int length = moves.size();
+        int rods = board.config().rods();
+        int[] from = new int[length];
+        int[] to = new int[length];
+        long[] states = new long[count];
+        states[0] = state;
+        long current = state;
+        for (int i = 0; i < length; i++) {
+            from[i] = moves.get(i).from().col();
+            to[i] = moves.get(i).to().col();
+            if (from[i] >= rods || to[i] >= rods || !board.isLegalMove(current, from[i], to[i])) {
+                throw new IllegalArgumentException("Not a solution from the state");
+            }
+            current = board.move(current, from[i], to[i]);
+            if (i + 1 < count) {
+                states[i + 1] = current;
+            }
+        }
+        if (!board.isSolved(current)) {
+            throw new IllegalArgumentException("Not a solution from the state");
+        }
+        long[] keys = new long[count];
+        byte[][] encoded = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            if (length - i > MAX_MOVES) {
+                continue;
+            }
+            int rotation = symmetry.canonicalRotation(states[i]);
+            keys[i] = board.rotate(states[i], rotation);
+            encoded[i] = new byte[length - i];
+            for (int j = i; j < length; j++) {
+                encoded[i][j - i] = (byte) (board.rotateRod(from[j], rotation) << ROD_BITS
+                        | board.rotateRod(to[j], rotation));
+            }
+        }
+        lock.lock();
+        try {
+            int[] offsetsOf = new int[count];
+            long end = size;
+            for (int i = 0; i < count; i++) {
+                offsetsOf[i] = -1;
+                if (encoded[i] == null || offsets.get(keys[i]) != LongIntHashMap.NO_VALUE
+                        || end + RECORD_OVERHEAD + encoded[i].length > Integer.MAX_VALUE) {
+                    continue;
+                }
+                offsetsOf[i] = (int) end;
+                end += RECORD_OVERHEAD + encoded[i].length;
+            }
+            if (end == size) {
+                return;
+            }
+            var records = ByteBuffer.allocate((int) (end - size));
+            var crc = new CRC32();
+            for (int i = 0; i < count; i++) {
+                if (offsetsOf[i] >= 0) {
+                    int start = records.position();
+                    records.putLong(keys[i]).putShort((short) encoded[i].length).put(encoded[i]);
+                    crc.reset();
+                    crc.update(records.array(), start, records.position() - start);
+                    records.putInt((int) crc.getValue());
+                }
+            }
+            writeFully(records.flip(), size);
+            channel.force(false);
+            for (int i = 0; i < count; i++) {
+                if (offsetsOf[i] >= 0) {
+                    offsets.putIfAbsent(keys[i], offsetsOf[i]);
+                    recent.put(keys[i], encoded[i]);
+                }
+            }
+            size = end;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached solutions.
+     *
+     * @return The number of solutions in the file.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return offsets.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found a solution.
+     *
+     * @return The number of hits since the cache was opened.
+     */
+    public long getHitCount() {
+        lock.lock();
+        try {
+            return hits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lookups that found no solution.
+     *
+     * @return The number of misses since the cache was opened.
+     */
+    public long getMissCount() {
+        lock.lock();
+        try {
+            return misses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the file of the cache.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private byte[] read(int offset) throws IOException {
+        int length = Short.toUnsignedInt(readFully(offset + Long.BYTES, Short.BYTES).getShort());
+        var record = readFully(offset, RECORD_OVERHEAD + length);
+        if (!hasValidChecksum(record)) {
+            throw new IOException("Corrupted solution cache record at " + offset);
+        }
+        byte[] moves = new byte[length];
+        record.get(Long.BYTES + Short.BYTES, moves);
+        return moves;
+    }
+
+    private byte[] rotate(byte[] moves, int rotation) {
+        if (rotation == 0) {
+            return moves;
+        }
+        byte[] rotated = new byte[moves.length];
+        for (int i = 0; i < moves.length; i++) {
+            int from = board.rotateRod(moves[i] >> ROD_BITS & ROD_MASK, rotation);
+            int to = board.rotateRod(moves[i] & ROD_MASK, rotation);
+            rotated[i] = (byte) (from << ROD_BITS | to);
+        }
+        return rotated;
+    }
+
+    private List<TwoPhaseMoveState.TwoPhaseMove<Position>> replay(long state, byte[] moves) {
+        List<TwoPhaseMoveState.TwoPhaseMove<Position>> result = new ArrayList<>(moves.length);
+        int rods = board.config().rods();
+        for (byte move : moves) {
+            int from = move >> ROD_BITS & ROD_MASK;
+            int to = move & ROD_MASK;
+            if (from >= rods || to >= rods || !board.isLegalMove(state, from, to)) {
+                return null;
+            }
+            result.add(board.toMove(state, from, to));
+            state = board.move(state, from, to);
+        }
+        return board.isSolved(state) ? result : null;
+    }
+
+    private static boolean hasValidChecksum(ByteBuffer record) {
+        int end = record.limit() - Integer.BYTES;
+        var crc = new CRC32();
+        crc.update(record.array(), 0, end);
+        return (int) crc.getValue() == record.getInt(end);
+    }
+
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        var buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of the solution cache");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package bfs;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A search submitted to a {@link SolverService}.
+ */
+public final class SolveJob {
+
+    private final SearchControl control;
+    private final CompletableFuture<SolveResult> result;
+
+    SolveJob(SearchControl control, CompletableFuture<SolveResult> result) {
+        this.control = control;
+        this.result = result;
+    }
+
+    /**
+     * Returns the result of the search.
+     *
+     * @return A future completed once the search has ended, normally or not. It only completes
+     * exceptionally if the solver failed with an unexpected exception.
+     */
+    public CompletableFuture<SolveResult> result() {
+        return result;
+    }
+
+    /**
+     * Asks the search to stop. Its result is then completed with {@link SearchOutcome#CANCELLED} unless it
+     * has already ended.
+     */
+    public void cancel() {
+        control.cancel();
+    }
+
+    /**
+     * Returns the control of the search.
+     *
+     * @return The control holding the budget of the search.
+     */
+    public SearchControl getControl() {
+        return control;
+    }
+}
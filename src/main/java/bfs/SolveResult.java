@@ -0,0 +1,28 @@
+package bfs;
+
+import model.Position;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The result of a job run by a {@link SolverService}.
+ *
+ * @param outcome  How the search ended.
+ * @param solution The moves of the solution if the outcome is {@link SearchOutcome#SOLVED}, otherwise empty.
+ * @param metrics  The counters of the search up to its end if the solver collects them, which tell how far a
+ *                 search that ran out of its budget got, see {@link SearchMetrics#getLowerBound()}.
+ */
+public record SolveResult(SearchOutcome outcome, Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> solution,
+                          Optional<SearchMetrics> metrics) {
+
+    /**
+     * Checks if a solution was found.
+     *
+     * @return True if the outcome is {@link SearchOutcome#SOLVED}, otherwise false.
+     */
+    public boolean isSolved() {
+        return outcome == SearchOutcome.SOLVED;
+    }
+}
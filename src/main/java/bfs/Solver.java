@@ -0,0 +1,77 @@
+package bfs;
+
+import model.Position;
+import model.TowerPuzzleState;
+import puzzle.TwoPhaseMoveState;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A search algorithm that finds solutions for states encoded by {@link model.PackedBoard}.
+ */
+public interface Solver {
+
+    /**
+     * Searches for a solution from the given packed state.
+     *
+     * @param start The packed state to start from.
+     * @return The moves of the solution, or an empty optional if none was found.
+     */
+    Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search(long start);
+
+    /**
+     * Returns the number of states whose successors were generated by the last search.
+     *
+     * @return The number of expanded states.
+     */
+    long getExpandedCount();
+
+    /**
+     * Sets the listener receiving the counters of every layer of the following searches.
+     * Solvers that do not search layer by layer ignore it.
+     *
+     * @param listener The listener, or {@code null} to remove it.
+     */
+    default void setSearchListener(SearchListener listener) {
+    }
+
+    /**
+     * Sets the control that can stop the following searches and keeps them within a budget.
+     * Solvers that finish in a time proportional to the length of the solution ignore it.
+     *
+     * @param control The control, or {@code null} to remove it.
+     */
+    default void setSearchControl(SearchControl control) {
+    }
+
+    /**
+     * Returns the counters of the last search.
+     *
+     * @return The metrics of the last or running search, or an empty optional if the solver does not
+     * collect them or has not searched yet.
+     */
+    default Optional<SearchMetrics> getMetrics() {
+        return Optional.empty();
+    }
+
+    /**
+     * Searches for a solution from the given board.
+     *
+     * @param state The board to start from, which is not modified.
+     * @return The moves of the solution, or an empty optional if none was found.
+     */
+    default Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search(TowerPuzzleState state) {
+        return search(state.toPackedState());
+    }
+
+    /**
+     * Searches for a solution from the given board and prints its moves.
+     *
+     * @param state The board to start from, which is not modified.
+     */
+    default void solveAndPrintSolution(TowerPuzzleState state) {
+        search(state).ifPresentOrElse(Paths::print, () -> System.out.println("No solution"));
+        System.out.printf("Expanded states: %d%n", getExpandedCount());
+    }
+}
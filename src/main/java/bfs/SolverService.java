@@ -0,0 +1,66 @@
+package bfs;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs searches as cancellable jobs within a {@link SearchBudget}, each on its own virtual thread.
+ * <p>
+ * Solvers keep the state of their last search, so every job gets a new solver from the supplier of the
+ * service. The searches check their {@link SearchControl} regularly and let other virtual threads run when
+ * they do, so many jobs can be in flight at once while only occupying the carrier threads of the virtual
+ * threads.
+ */
+public class SolverService implements AutoCloseable {
+
+    private final Supplier<? extends Solver> solvers;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Constructs a new {@code SolverService}.
+     *
+     * @param solvers The supplier of a new solver for every job.
+     */
+    public SolverService(Supplier<? extends Solver> solvers) {
+        this.solvers = solvers;
+    }
+
+    /**
+     * Starts searching for a solution. The time limit of the budget starts to run at once.
+     *
+     * @param start    The packed state to start from.
+     * @param budget   The limits of the search.
+     * @param progress The listener receiving every completed layer on the searching thread, or {@code null}.
+     * @return The job of the search.
+     */
+    public SolveJob submit(long start, SearchBudget budget, SearchListener progress) {
+        var control = new SearchControl(budget);
+        var result = CompletableFuture.supplyAsync(() -> solve(start, control, progress), executor);
+        return new SolveJob(control, result);
+    }
+
+    private SolveResult solve(long start, SearchControl control, SearchListener progress) {
+        Solver solver = solvers.get();
+        solver.setSearchListener(progress);
+        solver.setSearchControl(control);
+        try {
+            control.check(0, 0);
+            var solution = solver.search(start);
+            return new SolveResult(solution.isPresent() ? SearchOutcome.SOLVED : SearchOutcome.UNSOLVABLE,
+                    solution, solver.getMetrics());
+        } catch (SearchAbortedException e) {
+            return new SolveResult(e.getOutcome(), Optional.empty(), solver.getMetrics());
+        }
+    }
+
+    /**
+     * Cancels the running jobs by interrupting their threads and accepts no more jobs.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,28 @@
+package bfs;
+
+/**
+ * Thrown when a search would have to store more states than its memory budget allows.
+ */
+public class StateLimitExceededException extends SearchAbortedException {
+
+    private final long limit;
+
+    /**
+     * Constructs a new {@code StateLimitExceededException}.
+     *
+     * @param limit The largest number of states the search was allowed to store.
+     */
+    public StateLimitExceededException(long limit) {
+        super(SearchOutcome.STATE_LIMIT_EXCEEDED, "Search exceeded its budget of " + limit + " states");
+        this.limit = limit;
+    }
+
+    /**
+     * Returns the largest number of states the search was allowed to store.
+     *
+     * @return The state limit.
+     */
+    public long getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,142 @@
+package bfs;
+
+import model.PackedBoard;
+import model.PuzzleConfig;
+
+import java.util.Arrays;
+
+/**
+ * A perfect hash of the boards of the puzzle onto the integers from zero to {@link #count()} minus one.
+ * <p>
+ * The disks on a rod are always ordered by size, so a board is fully described by where the disks of
+ * each size are placed relative to the larger ones. Placing the disks of one size color by color, the
+ * disk of the {@code c}-th color either goes onto a rod holding no disk of that size yet, or onto a rod
+ * below, between or above the disks of that size already placed there. That is {@code rods + c} slots for
+ * the {@code c}-th color, so {@code rods * (rods + 1) * ... * (rods + colors - 1)} possibilities per size,
+ * and the rank of a board is the number formed by these choices as digits, the largest disks giving the
+ * most significant digit.
+ */
+public final class StateRank {
+
+    private final PackedBoard board;
+    private final int rods;
+    private final int colors;
+    private final int sizes;
+    private final long radix;
+
+    /**
+     * Constructs the perfect hash of the boards of the standard board.
+     */
+    public StateRank() {
+        this(PackedBoard.STANDARD);
+    }
+
+    /**
+     * Constructs the perfect hash of the boards of the given encoding.
+     *
+     * @param board The encoding of the boards.
+     * @throws IllegalArgumentException If the number of boards does not fit into a {@code long}.
+     */
+    public StateRank(PackedBoard board) {
+        PuzzleConfig config = board.config();
+        this.board = board;
+        this.rods = config.rods();
+        this.colors = config.colors();
+        this.sizes = config.disksPerColor();
+        long radix = 1;
+        for (int color = 0; color < colors; color++) {
+            radix *= rods + color;
+        }
+        this.radix = radix;
+        if (Math.log(radix) * sizes >= Math.log(Long.MAX_VALUE)) {
+            throw new IllegalArgumentException("Too many boards for " + config);
+        }
+    }
+
+    /**
+     * Returns the number of distinct boards.
+     *
+     * @return The number of boards, one more than the largest rank.
+     */
+    public long count() {
+        long count = 1;
+        for (int i = 0; i < sizes; i++) {
+            count *= radix;
+        }
+        return count;
+    }
+
+    /**
+     * Computes the rank of a board.
+     *
+     * @param state The packed state of the board.
+     * @return The rank of the board.
+     */
+    public long rank(long state) {
+        int[] rodOf = new int[colors];
+        int[] rankOf = new int[colors];
+        long rank = 0;
+        for (int size = sizes; size >= 1; size--) {
+            long digits = 0;
+            for (int color = 0; color < colors; color++) {
+                int disk = color * sizes + size - 1;
+                rodOf[color] = board.rod(state, disk);
+                rankOf[color] = board.rank(state, disk);
+                int slot = rodOf[color];
+                for (int other = 0; other < color; other++) {
+                    if (rodOf[other] < rodOf[color]
+                            || rodOf[other] == rodOf[color] && rankOf[other] < rankOf[color]) {
+                        slot++;
+                    }
+                }
+                digits = digits * (rods + color) + slot;
+            }
+            rank = rank * radix + digits;
+        }
+        return rank;
+    }
+
+    /**
+     * Computes the board of a rank.
+     *
+     * @param rank The rank of the board.
+     * @return The packed state of the board.
+     */
+    public long unrank(long rank) {
+        long[] digits = new long[sizes + 1];
+        for (int size = 1; size <= sizes; size++) {
+            digits[size] = rank % radix;
+            rank /= radix;
+        }
+        int[][] stacks = new int[rods][board.config().rowSize()];
+        int[] heights = new int[rods];
+        int[][] slots = new int[rods][colors];
+        int[] counts = new int[rods];
+        int[] slotOf = new int[colors];
+        for (int size = sizes; size >= 1; size--) {
+            long value = digits[size];
+            for (int color = colors - 1; color >= 0; color--) {
+                slotOf[color] = (int) (value % (rods + color));
+                value /= rods + color;
+            }
+            Arrays.fill(counts, 0);
+            for (int color = 0; color < colors; color++) {
+                int slot = slotOf[color];
+                int rod = 0;
+                while (slot > counts[rod]) {
+                    slot -= counts[rod] + 1;
+                    rod++;
+                }
+                System.arraycopy(slots[rod], slot, slots[rod], slot + 1, counts[rod] - slot);
+                slots[rod][slot] = color * sizes + size - 1;
+                counts[rod]++;
+            }
+            for (int rod = 0; rod < rods; rod++) {
+                for (int i = 0; i < counts[rod]; i++) {
+                    stacks[rod][heights[rod]++] = slots[rod][i];
+                }
+            }
+        }
+        return board.pack(stacks, heights);
+    }
+}
@@ -0,0 +1,120 @@
+package bfs;
+
+import model.PackedBoard;
+
+/**
+ * The rotations of {@link PackedBoard#symmetries()} as used by a search towards a set of goal states.
+ * <p>
+ * A search storing only the canonical form of every state explores each set of symmetric states once, which
+ * divides its states and work by the number of symmetries. This is only sound if the rotations map the goal
+ * states onto goal states, otherwise the canonical form of every state is the state itself. The states found
+ * this way are unfolded into states reachable from the real start at the end.
+ */
+final class Symmetry {
+
+    private final PackedBoard board;
+    private final boolean enabled;
+
+    /**
+     * Constructs the symmetry of a search towards the given goal states.
+     *
+     * @param board The encoding of the states.
+     * @param goals The packed goal states.
+     */
+    Symmetry(PackedBoard board, long[] goals) {
+        this.board = board;
+        this.enabled = board.symmetries() > 1 && isInvariant(board, goals);
+    }
+
+    /**
+     * Constructs the symmetry of a search towards the states returned by {@link PackedBoard#solvedStates()}.
+     *
+     * @param board The encoding of the states.
+     */
+    Symmetry(PackedBoard board) {
+        this(board, board.solvedStates());
+    }
+
+    /**
+     * Returns whether the search may store the canonical forms of the states.
+     *
+     * @return True if the board has symmetries mapping the goal states onto goal states, otherwise false.
+     */
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the canonical form of a state.
+     *
+     * @param state The packed state.
+     * @return The canonical form, or the state itself if the symmetry is not used.
+     */
+    long canonical(long state) {
+        return enabled ? board.canonical(state) : state;
+    }
+
+    /**
+     * Returns the rotation taking a state to its canonical form.
+     *
+     * @param state The packed state.
+     * @return The number of steps to rotate the state by, or {@code 0} if the symmetry is not used.
+     */
+    int canonicalRotation(long state) {
+        return enabled ? board.canonicalRotation(state) : 0;
+    }
+
+    /**
+     * Returns the rotation undoing another one.
+     *
+     * @param rotation The number of steps of the rotation.
+     * @return The number of steps of the inverse rotation.
+     */
+    int inverse(int rotation) {
+        return rotation == 0 ? 0 : board.symmetries() - rotation;
+    }
+
+    /**
+     * Turns a line of canonical states into the states reachable from a start state.
+     *
+     * @param start The packed state the line starts from, whose canonical form is the first state of the line.
+     * @param line  Canonical states, each one the canonical form of a successor of the previous one.
+     * @return The states of the line as reached from the start by single moves.
+     * @throws IllegalArgumentException If two consecutive states are not connected by a move.
+     */
+    long[] unfold(long start, long[] line) {
+        if (!enabled || line.length == 0) {
+            return line;
+        }
+        long[] unfolded = new long[line.length];
+        unfolded[0] = start;
+        long[] successors = new long[board.maxSuccessors()];
+        for (int i = 1; i < line.length; i++) {
+            int successorCount = board.successors(unfolded[i - 1], successors);
+            int j = 0;
+            while (j < successorCount && board.canonical(successors[j]) != line[i]) {
+                j++;
+            }
+            if (j == successorCount) {
+                throw new IllegalArgumentException("States are not connected by a move");
+            }
+            unfolded[i] = successors[j];
+        }
+        return unfolded;
+    }
+
+    private static boolean isInvariant(PackedBoard board, long[] goals) {
+        var set = new LongHashSet(goals.length);
+        for (long goal : goals) {
+            set.add(goal);
+        }
+        for (long goal : goals) {
+            for (int rotation = 1; rotation < board.symmetries(); rotation++) {
+                if (!set.contains(board.rotate(goal, rotation))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
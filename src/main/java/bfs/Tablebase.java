@@ -0,0 +1,244 @@
+package bfs;
+
+import model.PackedBoard;
+import model.Position;
+import model.PuzzleConfig;
+import puzzle.TwoPhaseMoveState;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The distance from the nearest solved state of every board, indexed by {@link StateRank}.
+ * <p>
+ * The table is generated once by a breadth-first search backward from the solved states and written to
+ * a file holding a small header followed by one byte per board. Opening the file maps it into memory
+ * read-only, so the operating system loads it lazily and shares its pages between every process using the
+ * same file. Afterwards the distance of a board and the best move from it are found without any search.
+ * <p>
+ * The search only expands the canonical form of every board, see {@link PackedBoard#canonical(long)}, and
+ * copies the distance of each canonical board to its rotations at the end, so the file holds every board.
+ */
+public class Tablebase implements Solver {
+
+    /**
+     * The value returned by {@link #distance(long)} for boards from which no solved state can be reached.
+     */
+    public static final int UNREACHABLE = -1;
+
+    private static final int MAGIC = 0x54574254;
+    private static final int HEADER_SIZE = 24;
+    private static final int UNREACHABLE_BYTE = 0xFF;
+
+    private final PackedBoard board;
+    private final StateRank ranks;
+    private final ByteBuffer distances;
+    private long expanded;
+
+    private Tablebase(PackedBoard board, StateRank ranks, ByteBuffer distances) {
+        this.board = board;
+        this.ranks = ranks;
+        this.distances = distances;
+    }
+
+    /**
+     * Generates the table of the standard board and writes it to a file.
+     *
+     * @param file The file to write.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void generate(Path file) throws IOException {
+        generate(PackedBoard.STANDARD, file);
+    }
+
+    /**
+     * Generates the table and writes it to a file, replacing the file only once it has been written completely.
+     *
+     * @param board The encoding of the boards.
+     * @param file  The file to write.
+     * @throws IOException              If the file cannot be written.
+     * @throws IllegalArgumentException If the board has too many states for a table.
+     */
+    public static void generate(PackedBoard board, Path file) throws IOException {
+        byte[] table = computeDistances(board, new StateRank(board));
+        var config = board.config();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC)
+                    .putInt(config.rods())
+                    .putInt(config.colors())
+                    .putInt(config.disksPerColor())
+                    .putLong(table.length)
+                    .flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            var body = ByteBuffer.wrap(table);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps a table of the standard board written by {@link #generate(Path)} into memory.
+     *
+     * @param file The file of the table.
+     * @return The table.
+     * @throws IOException If the file cannot be read or does not hold a table for the standard board.
+     */
+    public static Tablebase open(Path file) throws IOException {
+        return open(PackedBoard.STANDARD, file);
+    }
+
+    /**
+     * Maps a table written by {@link #generate(PackedBoard, Path)} into memory.
+     *
+     * @param board The encoding of the boards.
+     * @param file  The file of the table.
+     * @return The table.
+     * @throws IOException If the file cannot be read or does not hold a table for the given board.
+     */
+    public static Tablebase open(PackedBoard board, Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) {
+                throw new IOException("Not a tablebase: " + file);
+            }
+            var config = new PuzzleConfig(header.getInt(), header.getInt(), header.getInt());
+            long count = header.getLong();
+            var ranks = new StateRank(board);
+            if (!config.equals(board.config()) || count != ranks.count() || channel.size() != HEADER_SIZE + count) {
+                throw new IOException("Tablebase does not match the board: " + file);
+            }
+            return new Tablebase(board, ranks, channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, count));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Not a tablebase: " + file, e);
+        }
+    }
+
+    /**
+     * Returns the number of moves of an optimal solution from a board.
+     *
+     * @param state The packed state of the board.
+     * @return The length of an optimal solution, or {@link #UNREACHABLE} if the board cannot be solved.
+     */
+    public int distance(long state) {
+        int distance = distances.get((int) ranks.rank(state)) & 0xFF;
+        return distance == UNREACHABLE_BYTE ? UNREACHABLE : distance;
+    }
+
+    /**
+     * Returns the first move of an optimal solution from a board.
+     *
+     * @param state The packed state of the board.
+     * @return The move, or an empty optional if the board is solved or cannot be solved.
+     */
+    public Optional<TwoPhaseMoveState.TwoPhaseMove<Position>> bestMove(long state) {
+        int distance = distance(state);
+        if (distance <= 0) {
+            return Optional.empty();
+        }
+        int rods = board.config().rods();
+        for (int from = 0; from < rods; from++) {
+            for (int to = 0; to < rods; to++) {
+                if (board.isLegalMove(state, from, to) && distance(board.move(state, from, to)) == distance - 1) {
+                    return Optional.of(board.toMove(state, from, to));
+                }
+            }
+        }
+        throw new IllegalStateException("Inconsistent tablebase");
+    }
+
+    /**
+     * Follows the best moves from the given packed state to a solved state.
+     *
+     * @param start The packed state to start from.
+     * @return The moves of an optimal solution, or an empty optional if the puzzle cannot be solved.
+     */
+    @Override
+    public Optional<List<TwoPhaseMoveState.TwoPhaseMove<Position>>> search(long start) {
+        expanded = 0;
+        if (distance(start) == UNREACHABLE) {
+            return Optional.empty();
+        }
+        List<TwoPhaseMoveState.TwoPhaseMove<Position>> moves = new ArrayList<>();
+        long state = start;
+        for (var move = bestMove(state); move.isPresent(); move = bestMove(state)) {
+            expanded++;
+            moves.add(move.get());
+            state = board.move(state, move.get().from().col(), move.get().to().col());
+        }
+        return Optional.of(moves);
+    }
+
+    @Override
+    public long getExpandedCount() {
+        return expanded;
+    }
+
+    private static byte[] computeDistances(PackedBoard board, StateRank ranks) {
+        if (ranks.count() > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many boards for a tablebase: " + ranks.count());
+        }
+        int count = (int) ranks.count();
+        byte[] table = new byte[count];
+        Arrays.fill(table, (byte) UNREACHABLE_BYTE);
+        var symmetry = new Symmetry(board);
+        long[] queue = new long[count];
+        long[] successors = new long[board.maxSuccessors()];
+        int tail = 0;
+        for (long solved : board.solvedStates()) {
+            long goal = symmetry.canonical(solved);
+            int rank = (int) ranks.rank(goal);
+            if (table[rank] != 0) {
+                table[rank] = 0;
+                queue[tail++] = goal;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            long state = queue[head];
+            int distance = (table[(int) ranks.rank(state)] & 0xFF) + 1;
+            if (distance >= UNREACHABLE_BYTE) {
+                throw new IllegalStateException("Distance does not fit into a byte");
+            }
+            int successorCount = board.successors(state, successors);
+            for (int i = 0; i < successorCount; i++) {
+                long next = symmetry.canonical(successors[i]);
+                int rank = (int) ranks.rank(next);
+                if ((table[rank] & 0xFF) == UNREACHABLE_BYTE) {
+                    table[rank] = (byte) distance;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        if (symmetry.isEnabled()) {
+            for (int i = 0; i < tail; i++) {
+                byte distance = table[(int) ranks.rank(queue[i])];
+                for (int rotation = 1; rotation < board.symmetries(); rotation++) {
+                    table[(int) ranks.rank(board.rotate(queue[i], rotation))] = distance;
+                }
+            }
+        }
+        return table;
+    }
+}
@@ -1,10 +1,12 @@
 package gui;
 
 import game.console.Game;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -12,10 +14,17 @@ import json.GameResults;
 import json.ResultManager;
 import org.tinylog.Logger;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
 
 public class EndController {
 
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_ROWS = 10_000;
+    private static final int LEADERBOARD_SIZE = 10;
+
     @FXML
     private Label playerNameLabel;
 
@@ -26,21 +35,24 @@ public class EndController {
     private Label isCompletedLabel;
 
     @FXML
-    private TableView<GameResults> table;
+    private Label rankLabel;
 
+    @FXML
+    private ListView<String> leaderboardList;
 
     @FXML
-    private void initialize() {
+    private TableView<GameResults> table;
 
 
-        List<GameResults> resultList = ResultManager.readGameDataFromJSON("results.json");
-        Logger.info("Game data loaded.");
-        var last = resultList.getLast();
-        playerNameLabel.textProperty().set(last.getPlayerName());
-        moveCountLabel.textProperty().set(Integer.toString(last.getMoveCount()));
-        isCompletedLabel.textProperty().set(last.getIsCompleted());
-        ObservableList<GameResults> obsList = FXCollections.observableArrayList(resultList);
+    @FXML
+    private void initialize() {
+        ObservableList<GameResults> obsList = FXCollections.observableArrayList();
         table.setItems(obsList);
+        var latest = ResultManager.getLatest();
+        if (latest != null) {
+            showResult(latest);
+        }
+        Thread.ofVirtual().name("results-loader").start(() -> loadResults(obsList));
 
         TableColumn<GameResults, String> playerNameCol = new TableColumn<>("Name");
         playerNameCol.setCellValueFactory(new PropertyValueFactory<>("playerName"));
@@ -57,4 +69,68 @@ public class EndController {
 
     }
 
+    private void showResult(GameResults result) {
+        playerNameLabel.textProperty().set(result.getPlayerName());
+        moveCountLabel.textProperty().set(Integer.toString(result.getMoveCount()));
+        isCompletedLabel.textProperty().set(result.getIsCompleted());
+    }
+
+    /**
+     * Waits until the results queued for saving have been written, then reads the results from the newest
+     * one backward, one page at a time, and hands every page to the JavaFX thread. The newest result fills
+     * the labels with the first page, and at most {@value #MAX_ROWS} results are shown, so neither the time to
+     * the first page nor the memory depend on the size of the log.
+     */
+    private void loadResults(ObservableList<GameResults> items) {
+        try {
+            ResultManager.flush().join();
+        } catch (CompletionException e) {
+            Logger.error(e.getCause(), "Cannot save game data");
+        }
+        try {
+            var log = ResultManager.openResultLog();
+            long position = log.size();
+            int loaded = 0;
+            boolean first = true;
+            do {
+                var page = log.readPageBefore(position, Math.min(PAGE_SIZE, MAX_ROWS - loaded));
+                position = page.position();
+                loaded += page.results().size();
+                if (first && !page.results().isEmpty()) {
+                    var last = page.results().getFirst();
+                    loadLeaderboard(last.getPlayerName());
+                    Platform.runLater(() -> showResult(last));
+                    first = false;
+                }
+                Platform.runLater(() -> items.addAll(page.results()));
+            } while (position > 0 && loaded < MAX_ROWS);
+            Logger.info("Game data loaded.");
+        } catch (IOException e) {
+            Logger.error(e, "Cannot load game data");
+        }
+    }
+
+    /**
+     * Shows the best completions and the rank of a player from the leaderboard, which is read from its
+     * snapshot without going through the results.
+     */
+    private void loadLeaderboard(String playerName) {
+        try {
+            var leaderboard = ResultManager.openLeaderboard();
+            var rank = leaderboard.rank(playerName);
+            int players = leaderboard.getPlayerCount();
+            List<String> rows = new ArrayList<>();
+            int place = 1;
+            for (var entry : leaderboard.top(LEADERBOARD_SIZE)) {
+                rows.add("%d. %s - %d moves".formatted(place++, entry.playerName(), entry.moveCount()));
+            }
+            Platform.runLater(() -> {
+                rankLabel.textProperty().set(rank.isPresent() ? rank.getAsInt() + " of " + players : "-");
+                leaderboardList.getItems().setAll(rows);
+            });
+        } catch (IOException e) {
+            Logger.error(e, "Cannot load the leaderboard");
+        }
+    }
+
 }
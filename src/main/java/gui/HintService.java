@@ -0,0 +1,121 @@
+package gui;
+
+import bfs.BidirectionalSearch;
+import bfs.CachingSolver;
+import bfs.SolutionCache;
+import bfs.Solver;
+import model.PackedBoard;
+import model.Position;
+import org.tinylog.Logger;
+import puzzle.TwoPhaseMoveState;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Computes the next move of an optimal solution on a background thread.
+ * <p>
+ * Every state along a computed solution is remembered together with its next move, so asking again for
+ * any of these states, including the ones reached by following the hints, is answered immediately.
+ * <p>
+ * The solver is created by the first computation on the background thread, so opening a solution cache,
+ * which reads and verifies every stored solution, never delays the thread constructing the service.
+ */
+public class HintService {
+
+    private final PackedBoard board;
+    private final Supplier<Solver> solverFactory;
+    private final ExecutorService executor;
+    private final Map<Long, TwoPhaseMoveState.TwoPhaseMove<Position>> cache = new ConcurrentHashMap<>();
+    private Solver solver;
+
+    /**
+     * Constructs a new {@code HintService} for the standard board that uses a {@link BidirectionalSearch}
+     * backed by the solutions cached in {@link SolutionCache#defaultFile(model.PuzzleConfig)} on its own
+     * daemon thread.
+     */
+    public HintService() {
+        this(PackedBoard.STANDARD);
+    }
+
+    /**
+     * Constructs a new {@code HintService} that uses a {@link BidirectionalSearch} backed by the solutions
+     * cached in {@link SolutionCache#defaultFile(model.PuzzleConfig)} on its own daemon thread. If the cache
+     * cannot be opened, every hint is searched for.
+     *
+     * @param board The encoding of the states.
+     */
+    public HintService(PackedBoard board) {
+        this(board, () -> cachedSearch(board));
+    }
+
+    /**
+     * Constructs a new {@code HintService} that uses the given solver on its own daemon thread.
+     *
+     * @param board  The encoding of the states.
+     * @param solver The solver, which must find optimal solutions.
+     */
+    public HintService(PackedBoard board, Solver solver) {
+        this(board, () -> solver);
+    }
+
+    private HintService(PackedBoard board, Supplier<Solver> solverFactory) {
+        this.board = board;
+        this.solverFactory = solverFactory;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "hint-solver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static Solver cachedSearch(PackedBoard board) {
+        var search = new BidirectionalSearch(board);
+        try {
+            return new CachingSolver(search, SolutionCache.open(board, SolutionCache.defaultFile(board.config())));
+        } catch (IOException e) {
+            Logger.warn("Solution cache unavailable: {}", e.getMessage());
+            return search;
+        }
+    }
+
+    /**
+     * Returns the next move of an optimal solution from a state.
+     *
+     * @param state The packed state.
+     * @return A future completed with the move, or with an empty optional if the state is solved or cannot be solved.
+     */
+    public CompletableFuture<Optional<TwoPhaseMoveState.TwoPhaseMove<Position>>> hint(long state) {
+        var cached = cache.get(state);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+        return CompletableFuture.supplyAsync(() -> compute(state), executor);
+    }
+
+    private Optional<TwoPhaseMoveState.TwoPhaseMove<Position>> compute(long state) {
+        var cached = cache.get(state);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (solver == null) {
+            solver = solverFactory.get();
+        }
+        var solution = solver.search(state);
+        if (solution.isEmpty() || solution.get().isEmpty()) {
+            return Optional.empty();
+        }
+        long current = state;
+        for (var move : solution.get()) {
+            cache.putIfAbsent(current, move);
+            current = board.move(current, move.from().col(), move.to().col());
+        }
+        return Optional.of(solution.get().getFirst());
+    }
+}
@@ -10,6 +10,7 @@ import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.effect.ColorAdjust;
 import javafx.scene.image.ImageView;
 import javafx.scene.image.Image;
 import javafx.scene.input.MouseEvent;
@@ -17,19 +18,29 @@ import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import json.GameResults;
 import json.ResultManager;
+import model.BoardChange;
 import model.Colors;
+import model.MoveLog;
 import model.Position;
 import model.TowerPuzzleModel;
 import org.tinylog.Logger;
+import puzzle.TwoPhaseMoveState;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
 public class PuzzleController {
 
+    private static final HintService HINT_SERVICE = new HintService();
+
     @FXML
     private VBox box;
 
@@ -48,16 +59,29 @@ public class PuzzleController {
 
     private int moveCount;
 
+    private final MoveLog moveLog = new MoveLog();
+
+    private StackPane[][] squares;
+
+    private final List<StackPane> highlighted = new ArrayList<>();
+
 
     @FXML
     public void initialize() {
         moveCount = 0;
-        for (int i = 0; i < TowerPuzzleModel.ROW_SIZE; i++) {
+        int rowSize = model.getConfig().rowSize();
+        for (int i = 0; i < rowSize; i++) {
             var rowConstraint = new RowConstraints(Region.USE_COMPUTED_SIZE, Region.USE_COMPUTED_SIZE, Region.USE_COMPUTED_SIZE);
             rowConstraint.setPrefHeight(45);
             grid.getRowConstraints().add(i, rowConstraint);
         }
-        grid.setPrefHeight(TowerPuzzleModel.ROW_SIZE * 50);
+        while (grid.getColumnConstraints().size() < model.getConfig().rods()) {
+            var template = grid.getColumnConstraints().get(0);
+            var columnConstraint = new ColumnConstraints(template.getMinWidth(), template.getPrefWidth(), template.getMaxWidth(),
+                    template.getHgrow(), template.getHalignment(), template.isFillWidth());
+            grid.getColumnConstraints().add(columnConstraint);
+        }
+        grid.setPrefHeight(rowSize * 50);
         box.setPrefHeight(grid.getPrefHeight() + 100);
         pieceViews = Stream.of("kkorong.png", "pkorong.png", "rud.png")
                 .map(s -> "/images/" + s)
@@ -65,6 +89,8 @@ public class PuzzleController {
                 .map(ImageView::new)
                 .toArray(ImageView[]::new);
         populateGrid();
+        model.addBoardChangeListener(this::boardChanged);
+        requestHint(model.toPackedState());
         Platform.runLater(() -> {
             Stage stage = (Stage) grid.getScene().getWindow();
             playerName = stage.getUserData().toString();
@@ -74,6 +100,7 @@ public class PuzzleController {
 
     private void populateGrid() {
         grid.getChildren().removeAll(grid.getChildren());
+        squares = new StackPane[grid.getRowCount()][grid.getColumnCount()];
         for (int row = 0; row < grid.getRowCount(); row++) {
             for (int col = 0; col < grid.getColumnCount(); col++) {
                 final var square = new StackPane();
@@ -89,20 +116,15 @@ public class PuzzleController {
                     @Override
                     protected Image computeValue() {
                         return switch (model.diskProperty(i, j).get().getColors()) {
-                            case BLUE -> pieceViews[0].getImage();
-                            case RED -> pieceViews[1].getImage();
+                            case BLUE, GREEN -> pieceViews[0].getImage();
+                            case RED, YELLOW -> pieceViews[1].getImage();
                             case EMPTY -> pieceViews[2].getImage();
                         };
                     }
                 });
-                if (model.diskProperty(i, j).get().getColors() == Colors.EMPTY) {
-                    im.setFitHeight(50);
-                    im.setFitWidth(10);
-                } else {
-                    im.setFitHeight(40);
-                    im.setFitWidth(model.diskProperty(i, j).get().getValue() * 20 + 20);
-                }
                 square.getChildren().add(im);
+                squares[row][col] = square;
+                resize(Position.of(row, col));
                 square.setOnMouseClicked(mouseEvent -> {
                     try {
                         handleMouseClick(mouseEvent);
@@ -115,6 +137,33 @@ public class PuzzleController {
         }
     }
 
+    private void boardChanged(BoardChange change) {
+        clearHighlights();
+        for (var position : change.positions()) {
+            resize(position);
+        }
+    }
+
+    private void resize(Position position) {
+        var disk = model.diskProperty(position.row(), position.col()).get();
+        var im = (ImageView) squares[position.row()][position.col()].getChildren().get(0);
+        im.setEffect(effect(disk.getColors()));
+        if (disk.getColors() == Colors.EMPTY) {
+            im.setFitHeight(50);
+            im.setFitWidth(10);
+        } else {
+            im.setFitHeight(40);
+            im.setFitWidth(disk.getValue() * 20 + 20);
+        }
+    }
+
+    private static ColorAdjust effect(Colors color) {
+        return switch (color) {
+            case GREEN, YELLOW -> new ColorAdjust(-0.5, 0, 0, 0);
+            default -> null;
+        };
+    }
+
     private void handleMouseClick(MouseEvent mouseEvent) throws IOException {
         var square = (StackPane) mouseEvent.getSource();
         var row = GridPane.getRowIndex(square);
@@ -122,12 +171,12 @@ public class PuzzleController {
         if (selector.getPhase().equals(BoardGameMoveSelector.Phase.SELECT_FROM) && model.diskProperty(row, col).get().getColors() == Colors.EMPTY) {
             Logger.info("invalid");
             selector.reset();
-        } else if (selector.getPhase() == BoardGameMoveSelector.Phase.SELECT_FROM && !model.getTopDisks().contains(new Position(row, col))) {
+        } else if (selector.getPhase() == BoardGameMoveSelector.Phase.SELECT_FROM && !model.isTopDisk(Position.of(row, col))) {
             selector.reset();
             Logger.info("invalid");
         } else if (selector.getPhase().equals(BoardGameMoveSelector.Phase.SELECT_FROM)) {
             selector.select(model.diskProperty(row, col).get().getPosition());
-        } else if (selector.getPhase().equals(BoardGameMoveSelector.Phase.SELECT_TO) && !(model.getTopDisks().contains(new Position(row + 1, col)) || row == grid.getRowCount() - 1)) {
+        } else if (selector.getPhase().equals(BoardGameMoveSelector.Phase.SELECT_TO) && !model.isLegalToMoveTo(Position.of(row, col))) {
             Logger.info("invalid");
             selector.reset();
         } else if (selector.getPhase().equals(BoardGameMoveSelector.Phase.SELECT_TO) && model.diskProperty(row, col).get().getColors() == Colors.EMPTY) {
@@ -139,9 +188,10 @@ public class PuzzleController {
             } else {
                 if (selector.isReadyToMove()) {
                     Logger.info("{} moved! {} => {}", playerName, selector.getFrom(), selector.getTo());
+                    moveLog.add(selector.getFrom().col(), selector.getTo().col());
                     selector.makeMove();
-                    populateGrid();
                     moveCount++;
+                    requestHint(model.toPackedState());
                     if (model.isSolved()) {
                         solved();
                     }
@@ -153,6 +203,44 @@ public class PuzzleController {
         System.out.println();
     }
 
+    @FXML
+    private void onHint() {
+        long state = model.toPackedState();
+        requestHint(state).thenAccept(hint -> Platform.runLater(() -> showHint(state, hint)));
+    }
+
+    private CompletableFuture<Optional<TwoPhaseMoveState.TwoPhaseMove<Position>>> requestHint(long state) {
+        return HINT_SERVICE.hint(state).whenComplete((hint, e) -> {
+            if (e != null) {
+                Logger.error(e, "Cannot compute a hint");
+            }
+        });
+    }
+
+    private void showHint(long state, Optional<TwoPhaseMoveState.TwoPhaseMove<Position>> hint) {
+        if (state != model.toPackedState()) {
+            return;
+        }
+        hint.ifPresentOrElse(move -> {
+            Logger.info("Hint: {} => {}", move.from(), move.to());
+            highlight(move.from());
+            highlight(move.to());
+        }, () -> Logger.info("No hint available"));
+    }
+
+    private void highlight(Position position) {
+        var square = squares[position.row()][position.col()];
+        square.setStyle("-fx-background-color: lightgreen");
+        highlighted.add(square);
+    }
+
+    private void clearHighlights() {
+        for (var square : highlighted) {
+            square.setStyle("-fx-background-color: white");
+        }
+        highlighted.clear();
+    }
+
     @FXML
     private void onGiveUp() throws IOException {
         Logger.info("{} gave up", playerName);
@@ -177,9 +265,10 @@ public class PuzzleController {
     }
 
     private void saveData() throws IOException {
-        var outputData = new GameResults(playerName, moveCount, Boolean.toString(isCompleted));
+        var outputData = new GameResults(playerName, moveCount, Boolean.toString(isCompleted),
+                Base64.getEncoder().encodeToString(moveLog.toByteArray()));
         ResultManager.saveGameDataToJSON(outputData);
-        Logger.info("Game data saved to JSON.");
+        Logger.info("Game data queued for saving.");
     }
 
 
@@ -10,10 +10,21 @@ public class GameResults implements Serializable {
     private int moveCount;
     private String isCompleted;
 
+    /**
+     * The moves of the game recorded by a {@link model.MoveLog} in Base64, or {@code null} for results saved
+     * by earlier versions.
+     */
+    private String moves;
+
     public GameResults(String playerName, int moveCount, String isCompleted) {
+        this(playerName, moveCount, isCompleted, null);
+    }
+
+    public GameResults(String playerName, int moveCount, String isCompleted, String moves) {
         this.playerName = playerName;
         this.moveCount = moveCount;
         this.isCompleted = isCompleted;
+        this.moves = moves;
     }
 
 
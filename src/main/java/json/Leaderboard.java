@@ -0,0 +1,353 @@
+package json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * An index of the completed games of a {@link ResultLog} ranked by the number of moves, fewest first, and
+ * among equal numbers of moves by the order they were saved.
+ * <p>
+ * The index keeps the best {@value #CAPACITY} completions overall and of every player in sorted sets, and
+ * the best number of moves of every player in a Fenwick tree counting the players per number of moves. So
+ * adding a result, the top completions and the rank of a player all take a time logarithmic in the number of
+ * completions and players.
+ * <p>
+ * The index is persisted as a snapshot holding the completions of every player and the offset of the log it
+ * covers. Opening it reads only the results saved after that offset, and a snapshot that does not match the
+ * log, because it is missing, corrupted or older than a compaction, is rebuilt from the whole log once.
+ * Updates write the snapshot only once every {@value #SNAPSHOT_INTERVAL} results, so the tail read by the next
+ * opening stays short without rewriting the whole index for every result; {@link #save()} writes it at once.
+ */
+public class Leaderboard {
+
+    /**
+     * The largest number of completions kept overall and per player.
+     */
+    public static final int CAPACITY = 100;
+
+    /**
+     * The number of results read by updates before the snapshot is written again.
+     */
+    public static final int SNAPSHOT_INTERVAL = 1024;
+
+    private static final int MAGIC = 0x54574C42;
+    private static final int VERSION = 1;
+    private static final String COMPLETED = "true";
+    private static final int INITIAL_MOVES = 128;
+
+    /**
+     * A completed game.
+     *
+     * @param playerName The name of the player.
+     * @param moveCount  The number of moves the player solved the puzzle in.
+     * @param sequence   The position of the result among all the saved results, starting from zero.
+     */
+    public record Entry(String playerName, int moveCount, long sequence) {
+    }
+
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::moveCount)
+            .thenComparingLong(Entry::sequence);
+
+    private final Path file;
+    private final ResultLog log;
+    private final TreeSet<Entry> overall = new TreeSet<>(ORDER);
+    private final Map<String, TreeSet<Entry>> players = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long[] bestCounts = new long[INITIAL_MOVES + 1];
+    private long position;
+    private long count;
+    private long savedCount = -1;
+
+    private Leaderboard(Path file, ResultLog log) {
+        this.file = file;
+        this.log = log;
+    }
+
+    /**
+     * Opens the index of a log, bringing it up to date with the results saved since its snapshot was written.
+     * The snapshot is written if it had to be rebuilt or was at least {@value #SNAPSHOT_INTERVAL} results
+     * behind the log.
+     *
+     * @param file The file of the snapshot, which may not exist.
+     * @param log  The log of the results.
+     * @return The index.
+     * @throws IOException If the log cannot be read or the snapshot cannot be written.
+     */
+    public static Leaderboard open(Path file, ResultLog log) throws IOException {
+        var leaderboard = new Leaderboard(file, log);
+        leaderboard.lock.lock();
+        try {
+            if (!leaderboard.load() || !log.isLineStart(leaderboard.position)) {
+                leaderboard.clear();
+            }
+            leaderboard.update();
+        } finally {
+            leaderboard.lock.unlock();
+        }
+        return leaderboard;
+    }
+
+    /**
+     * Reads the results saved since the last update and writes the snapshot if it has no snapshot yet or at
+     * least {@value #SNAPSHOT_INTERVAL} results were read since the snapshot was written.
+     *
+     * @throws IOException If the log cannot be read or the snapshot cannot be written.
+     */
+    public void update() throws IOException {
+        lock.lock();
+        try {
+            position = log.readFrom(position, this::add);
+            if (savedCount < 0 || count - savedCount >= SNAPSHOT_INTERVAL) {
+                write();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the snapshot if results were read since it was last written.
+     *
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public void save() throws IOException {
+        lock.lock();
+        try {
+            if (count != savedCount) {
+                write();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the completions with the fewest moves.
+     *
+     * @param k The largest number of completions to return, at most {@value #CAPACITY}.
+     * @return The best completions, the best one first.
+     */
+    public List<Entry> top(int k) {
+        lock.lock();
+        try {
+            return first(overall, k);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the completions of a player with the fewest moves.
+     *
+     * @param playerName The name of the player.
+     * @param k          The largest number of completions to return, at most {@value #CAPACITY}.
+     * @return The best completions of the player, the best one first, or an empty list if the player has none.
+     */
+    public List<Entry> top(String playerName, int k) {
+        lock.lock();
+        try {
+            var entries = players.get(playerName);
+            return entries == null ? List.of() : first(entries, k);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the rank of a player by the best completion of every player. Players with the same best number
+     * of moves share a rank.
+     *
+     * @param playerName The name of the player.
+     * @return One more than the number of players with fewer moves, or an empty optional if the player has not
+     * completed a game.
+     */
+    public OptionalInt rank(String playerName) {
+        lock.lock();
+        try {
+            var entries = players.get(playerName);
+            if (entries == null) {
+                return OptionalInt.empty();
+            }
+            return OptionalInt.of((int) countBelow(entries.first().moveCount()) + 1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of players who completed a game.
+     *
+     * @return The number of ranked players.
+     */
+    public int getPlayerCount() {
+        lock.lock();
+        try {
+            return players.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void add(GameResults result) {
+        long sequence = count++;
+        if (COMPLETED.equals(result.getIsCompleted()) && result.getMoveCount() >= 0) {
+            add(new Entry(result.getPlayerName(), result.getMoveCount(), sequence));
+        }
+    }
+
+    private void add(Entry entry) {
+        var entries = players.computeIfAbsent(entry.playerName(), name -> new TreeSet<>(ORDER));
+        int best = entries.isEmpty() ? -1 : entries.first().moveCount();
+        if (insert(entries, entry) && (best < 0 || entry.moveCount() < best)) {
+            if (best >= 0) {
+                addBest(best, -1);
+            }
+            addBest(entry.moveCount(), 1);
+        }
+        insert(overall, entry);
+    }
+
+    private static boolean insert(TreeSet<Entry> entries, Entry entry) {
+        entries.add(entry);
+        if (entries.size() > CAPACITY) {
+            return entries.pollLast() != entry;
+        }
+        return true;
+    }
+
+    private static List<Entry> first(TreeSet<Entry> entries, int k) {
+        List<Entry> result = new ArrayList<>(Math.min(k, entries.size()));
+        for (var entry : entries) {
+            if (result.size() >= k) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * Adds to the number of players whose best completion took a number of moves. The tree is indexed from
+     * one, so the moves are shifted by one. When the moves do not fit, the tree doubles its size, which only
+     * needs the new root covering the whole old tree.
+     */
+    private void addBest(int moves, long delta) {
+        int index = moves + 1;
+        for (int size = bestCounts.length - 1; index > size; size *= 2) {
+            long[] grown = Arrays.copyOf(bestCounts, 2 * size + 1);
+            grown[2 * size] = countBelow(size);
+            bestCounts = grown;
+        }
+        for (int i = index; i < bestCounts.length; i += i & -i) {
+            bestCounts[i] += delta;
+        }
+    }
+
+    private long countBelow(int moves) {
+        long sum = 0;
+        for (int i = Math.min(moves, bestCounts.length - 1); i > 0; i -= i & -i) {
+            sum += bestCounts[i];
+        }
+        return sum;
+    }
+
+    private void clear() {
+        overall.clear();
+        players.clear();
+        bestCounts = new long[bestCounts.length];
+        position = 0;
+        count = 0;
+        savedCount = -1;
+    }
+
+    private boolean load() throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < Integer.BYTES) {
+            return false;
+        }
+        var crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - Integer.BYTES);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+            return false;
+        }
+        try (var in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - Integer.BYTES))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return false;
+            }
+            position = in.readLong();
+            count = in.readLong();
+            savedCount = count;
+            int playerCount = in.readInt();
+            for (int i = 0; i < playerCount; i++) {
+                String name = in.readUTF();
+                int entryCount = in.readInt();
+                for (int j = 0; j < entryCount; j++) {
+                    add(new Entry(name, in.readInt(), in.readLong()));
+                }
+            }
+            return true;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file and forces it to the disk before it replaces the old one, so a
+     * crash leaves either of them intact.
+     */
+    private void write() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(position);
+            out.writeLong(count);
+            out.writeInt(players.size());
+            for (var player : players.entrySet()) {
+                out.writeUTF(player.getKey());
+                out.writeInt(player.getValue().size());
+                for (var entry : player.getValue()) {
+                    out.writeInt(entry.moveCount());
+                    out.writeLong(entry.sequence());
+                }
+            }
+            var crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        }
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        savedCount = count;
+    }
+}
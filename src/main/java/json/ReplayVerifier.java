@@ -0,0 +1,243 @@
+package json;
+
+import model.MoveLog;
+import model.PackedBoard;
+import model.PackedMove;
+import model.TowerPuzzleState;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks saved game results by replaying their recorded moves from the start position.
+ * <p>
+ * A result is valid if every recorded move is legal, the number of moves is the saved move count, and the
+ * game is solved by its last move exactly if the result says it was completed. The moves are replayed on
+ * states encoded by {@link PackedBoard}, so replaying allocates nothing. Batches of results are split into
+ * chunks that are replayed by separate tasks on a {@link ForkJoinPool}.
+ */
+public class ReplayVerifier {
+
+    private static final int CHUNK_SIZE = 64;
+
+    /**
+     * The verdict on a single result.
+     */
+    public enum Verdict {
+        /**
+         * The recorded moves confirm the result.
+         */
+        VALID,
+        /**
+         * The result has no recorded moves, as the results saved by earlier versions.
+         */
+        UNRECORDED,
+        /**
+         * The recorded moves cannot be decoded.
+         */
+        MALFORMED,
+        /**
+         * A recorded move is not legal.
+         */
+        ILLEGAL_MOVE,
+        /**
+         * The number of recorded moves differs from the saved move count.
+         */
+        MOVE_COUNT_MISMATCH,
+        /**
+         * The game was solved although the result says it was not completed, or the other way round, or the
+         * moves continue after the game was solved.
+         */
+        COMPLETION_MISMATCH
+    }
+
+    /**
+     * The verdicts on a batch of results.
+     *
+     * @param verdicts     The verdict on every result in the order of the results.
+     * @param moves        The number of moves replayed.
+     * @param elapsedNanos The time the replay took.
+     */
+    public record Report(List<Verdict> verdicts, long moves, long elapsedNanos) {
+
+        /**
+         * Returns the number of results with a verdict.
+         *
+         * @param verdict The verdict.
+         * @return The number of results the verdict was given to.
+         */
+        public long count(Verdict verdict) {
+            return verdicts.stream().filter(v -> v == verdict).count();
+        }
+
+        /**
+         * Returns the replay speed.
+         *
+         * @return The number of moves replayed per second.
+         */
+        public double movesPerSecond() {
+            return elapsedNanos == 0 ? 0 : moves * 1e9 / elapsedNanos;
+        }
+    }
+
+    private final PackedBoard board;
+    private final long start;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a new {@code ReplayVerifier} for the standard board running on the common pool.
+     */
+    public ReplayVerifier() {
+        this(PackedBoard.STANDARD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@code ReplayVerifier} running on the given pool.
+     *
+     * @param board The encoding of the states, whose start position every game starts from.
+     * @param pool  The pool replaying the batches.
+     */
+    public ReplayVerifier(PackedBoard board, ForkJoinPool pool) {
+        this.board = board;
+        this.start = new TowerPuzzleState(board.config()).toPackedState();
+        this.pool = pool;
+    }
+
+    /**
+     * Checks a result.
+     *
+     * @param result The result.
+     * @return The verdict on the result.
+     */
+    public Verdict verify(GameResults result) {
+        return verify(result, null);
+    }
+
+    private Verdict verify(GameResults result, LongAdder replayed) {
+        if (result.getMoves() == null) {
+            return Verdict.UNRECORDED;
+        }
+        byte[] moves;
+        try {
+            moves = Base64.getDecoder().decode(result.getMoves());
+        } catch (IllegalArgumentException e) {
+            return Verdict.MALFORMED;
+        }
+        return verify(moves, result.getMoveCount(), Boolean.parseBoolean(result.getIsCompleted()), replayed);
+    }
+
+    /**
+     * Checks recorded moves against a result.
+     *
+     * @param moves     The moves recorded by a {@link MoveLog}.
+     * @param moveCount The saved move count.
+     * @param completed Whether the result says the game was completed.
+     * @return The verdict on the result.
+     */
+    public Verdict verify(byte[] moves, int moveCount, boolean completed) {
+        return verify(moves, moveCount, completed, null);
+    }
+
+    /**
+     * Checks recorded moves against a result, adding the number of moves actually replayed to a counter.
+     */
+    private Verdict verify(byte[] moves, int moveCount, boolean completed, LongAdder replayed) {
+        if (moves.length != moveCount) {
+            return Verdict.MOVE_COUNT_MISMATCH;
+        }
+        long state = start;
+        int rods = board.config().rods();
+        int count = 0;
+        var verdict = Verdict.VALID;
+        for (byte encoded : moves) {
+            if (board.isSolved(state)) {
+                verdict = Verdict.COMPLETION_MISMATCH;
+                break;
+            }
+            int move = MoveLog.decode(encoded);
+            int from = PackedMove.from(move);
+            int to = PackedMove.to(move);
+            if (from >= rods || to >= rods || !board.isLegalMove(state, from, to)) {
+                verdict = Verdict.ILLEGAL_MOVE;
+                break;
+            }
+            state = board.move(state, from, to);
+            count++;
+        }
+        if (replayed != null) {
+            replayed.add(count);
+        }
+        if (verdict == Verdict.VALID && board.isSolved(state) != completed) {
+            verdict = Verdict.COMPLETION_MISMATCH;
+        }
+        return verdict;
+    }
+
+    /**
+     * Checks a batch of results in parallel.
+     *
+     * @param results The results.
+     * @return The verdicts on the results.
+     */
+    public Report verifyAll(List<GameResults> results) {
+        var verdicts = new Verdict[results.size()];
+        var moves = new LongAdder();
+        long startNanos = System.nanoTime();
+        pool.invoke(new Replay(results, 0, results.size(), verdicts, moves));
+        return new Report(Arrays.asList(verdicts), moves.sum(), System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Replays a chunk of the results, splitting it further while it is larger than {@link #CHUNK_SIZE}.
+     */
+    private final class Replay extends RecursiveAction {
+        private final List<GameResults> results;
+        private final int start;
+        private final int end;
+        private final Verdict[] verdicts;
+        private final LongAdder moves;
+
+        private Replay(List<GameResults> results, int start, int end, Verdict[] verdicts, LongAdder moves) {
+            this.results = results;
+            this.start = start;
+            this.end = end;
+            this.verdicts = verdicts;
+            this.moves = moves;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start > CHUNK_SIZE) {
+                int middle = (start + end) >>> 1;
+                invokeAll(new Replay(results, start, middle, verdicts, moves),
+                        new Replay(results, middle, end, verdicts, moves));
+                return;
+            }
+            for (int i = start; i < end; i++) {
+                verdicts[i] = verify(results.get(i), moves);
+            }
+        }
+    }
+
+    /**
+     * Checks every saved result and prints the number of results per verdict. The log is opened read-only,
+     * so the verifier can run while the game is saving results.
+     *
+     * @param args Not used.
+     * @throws IOException If the log cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        var report = new ReplayVerifier().verifyAll(ResultLog.openReadOnly(Path.of(ResultManager.RESULTS_FILE)).readAll());
+        for (var verdict : Verdict.values()) {
+            System.out.printf("%-20s %d%n", verdict, report.count(verdict));
+        }
+        System.out.printf("Replayed %d moves in %d ms, %.0f moves per second%n", report.moves(),
+                report.elapsedNanos() / 1_000_000, report.movesPerSecond());
+    }
+}
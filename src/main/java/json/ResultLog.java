@@ -0,0 +1,459 @@
+package json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * An append-only log of game results stored as JSON Lines, one compact JSON object per line.
+ * <p>
+ * Saving a result appends a single line and forces it to the disk, so it takes the same time however long
+ * the history is. A result counts as saved once its line break has been written. Opening the log cuts off
+ * an unfinished last line left behind by a crash. Lines that cannot be parsed are skipped when reading, and
+ * {@link #compact()} rewrites the log without them, replacing the file atomically.
+ * <p>
+ * A log that does not exist yet is created from the results of the legacy JSON array file, which is left
+ * untouched.
+ * <p>
+ * Besides reading the whole log, the results can be read page by page from the newest one backward with
+ * {@link #readPageBefore(long, int)}, which only reads as much of the file as the page needs.
+ */
+public class ResultLog {
+
+    private static final byte NEWLINE = '\n';
+    private static final int TAIL_CHUNK = 4096;
+    private static final byte[] NO_BYTES = new byte[0];
+
+    private final Path file;
+    private final Gson gson = new Gson();
+    private final ReentrantLock lock = new ReentrantLock();
+    private long invalidLines;
+
+    private ResultLog(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens a log, migrating the legacy file if the log does not exist yet and recovering a torn last line.
+     *
+     * @param file       The file of the log.
+     * @param legacyFile The JSON array file written by earlier versions, which may not exist.
+     * @return The log.
+     * @throws IOException If the files cannot be read or written.
+     */
+    public static ResultLog open(Path file, Path legacyFile) throws IOException {
+        var log = new ResultLog(file);
+        if (!Files.exists(file)) {
+            log.migrate(legacyFile);
+        }
+        log.recover();
+        return log;
+    }
+
+    /**
+     * Opens a log only for reading, without migrating the legacy file or recovering a torn last line, so
+     * another process may append to it meanwhile. An unfinished last line is skipped as a line that cannot
+     * be parsed.
+     *
+     * @param file The file of the log.
+     * @return The log.
+     * @throws IOException If the file does not exist.
+     */
+    public static ResultLog openReadOnly(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            throw new NoSuchFileException(file.toString());
+        }
+        return new ResultLog(file);
+    }
+
+    /**
+     * Returns the file of the log.
+     *
+     * @return The file of the log.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Appends a result to the log.
+     *
+     * @param result The result to save.
+     * @throws IOException If the result cannot be written.
+     */
+    public void append(GameResults result) throws IOException {
+        appendAll(List.of(result), true);
+    }
+
+    /**
+     * Appends results to the log with a single write.
+     *
+     * @param results The results to save in the order they were saved.
+     * @param force   Whether to force the results to the disk before returning.
+     * @throws IOException If the results cannot be written.
+     */
+    public void appendAll(List<GameResults> results, boolean force) throws IOException {
+        var sb = new StringBuilder();
+        for (var result : results) {
+            sb.append(gson.toJson(result)).append('\n');
+        }
+        byte[] lines = sb.toString().getBytes(StandardCharsets.UTF_8);
+        lock.lock();
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND)) {
+            var buffer = ByteBuffer.wrap(lines);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (force) {
+                channel.force(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forces the results appended without forcing them to the disk.
+     *
+     * @throws IOException If the log cannot be forced.
+     */
+    public void force() throws IOException {
+        lock.lock();
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads every result of the log in the order they were saved, skipping the lines that cannot be parsed.
+     *
+     * @return The results.
+     * @throws IOException If the log cannot be read.
+     */
+    public List<GameResults> readAll() throws IOException {
+        List<GameResults> results = new ArrayList<>();
+        long invalid = 0;
+        lock.lock();
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                var result = parse(line);
+                if (result != null) {
+                    results.add(result);
+                } else if (!line.isBlank()) {
+                    invalid++;
+                }
+            }
+            invalidLines = invalid;
+        } finally {
+            lock.unlock();
+        }
+        return results;
+    }
+
+    /**
+     * A page of results read backward from the end of the log.
+     *
+     * @param results  The results of the page, the newest one first.
+     * @param position The offset of the oldest line read, where the next older page ends.
+     */
+    public record Page(List<GameResults> results, long position) {
+
+        /**
+         * Checks if there are older results.
+         *
+         * @return True if the page does not start at the beginning of the log, otherwise false.
+         */
+        public boolean hasMore() {
+            return position > 0;
+        }
+    }
+
+    /**
+     * Returns the current length of the log.
+     *
+     * @return The offset where the next result will be appended.
+     * @throws IOException If the size of the file cannot be read.
+     */
+    public long size() throws IOException {
+        return Files.size(file);
+    }
+
+    /**
+     * Returns the newest result.
+     *
+     * @return The newest result, or {@code null} if the log holds none.
+     * @throws IOException If the log cannot be read.
+     */
+    public GameResults readLast() throws IOException {
+        var results = readPageBefore(size(), 1).results();
+        return results.isEmpty() ? null : results.getFirst();
+    }
+
+    /**
+     * Reads the results that end before an offset, newest first, skipping the lines that cannot be parsed.
+     * The file is read backward in chunks until the page is full, so reading a page takes a time proportional
+     * to the size of the page and not to the size of the log.
+     *
+     * @param end   The offset the page ends at, {@link #size()} for the newest page or
+     *              {@link Page#position()} of the previous page for the next older one.
+     * @param count The largest number of results of the page.
+     * @return The page, holding fewer results than asked for only if it reaches the beginning of the log.
+     * @throws IOException If the log cannot be read.
+     */
+    public Page readPageBefore(long end, int count) throws IOException {
+        List<GameResults> results = new ArrayList<>(count);
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            byte[] tail = NO_BYTES;
+            long chunkEnd = Math.min(end, channel.size());
+            var buffer = ByteBuffer.allocate(TAIL_CHUNK);
+            while (chunkEnd > 0) {
+                long chunkStart = Math.max(0, chunkEnd - TAIL_CHUNK);
+                buffer.clear().limit((int) (chunkEnd - chunkStart));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, chunkStart + buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of " + file);
+                    }
+                }
+                byte[] chunk = buffer.array();
+                int lineEnd = buffer.limit();
+                for (int i = lineEnd - 1; i >= 0; i--) {
+                    if (chunk[i] == NEWLINE) {
+                        addLine(results, chunk, i + 1, lineEnd, tail);
+                        tail = NO_BYTES;
+                        lineEnd = i;
+                        if (results.size() == count) {
+                            return new Page(results, chunkStart + i + 1);
+                        }
+                    }
+                }
+                tail = concat(chunk, 0, lineEnd, tail);
+                chunkEnd = chunkStart;
+            }
+            addLine(results, tail, 0, tail.length, NO_BYTES);
+            return new Page(results, 0);
+        }
+    }
+
+    /**
+     * Reads the results saved after an offset in the order they were saved, skipping the lines that cannot
+     * be parsed, which are counted for {@link #needsCompaction()}. Only the part of the file after the offset
+     * is read.
+     *
+     * @param start  The offset of the first line to read, which must be the beginning of a line.
+     * @param action The action receiving every result.
+     * @return The offset after the last line read, where the next call should start.
+     * @throws IOException If the log cannot be read.
+     */
+    public long readFrom(long start, Consumer<GameResults> action) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long end = channel.size();
+            long lineStart = start;
+            long invalid = 0;
+            byte[] head = NO_BYTES;
+            var buffer = ByteBuffer.allocate(TAIL_CHUNK);
+            for (long chunkStart = start; chunkStart < end; chunkStart += buffer.limit()) {
+                buffer.clear().limit((int) Math.min(TAIL_CHUNK, end - chunkStart));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, chunkStart + buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of " + file);
+                    }
+                }
+                byte[] chunk = buffer.array();
+                int from = 0;
+                for (int i = 0; i < buffer.limit(); i++) {
+                    if (chunk[i] == NEWLINE) {
+                        var line = new String(concat(head, 0, head.length, Arrays.copyOfRange(chunk, from, i)),
+                                StandardCharsets.UTF_8);
+                        var result = parse(line);
+                        if (result != null) {
+                            action.accept(result);
+                        } else if (!line.isBlank()) {
+                            invalid++;
+                        }
+                        head = NO_BYTES;
+                        from = i + 1;
+                        lineStart = chunkStart + i + 1;
+                    }
+                }
+                head = concat(head, 0, head.length, Arrays.copyOfRange(chunk, from, buffer.limit()));
+            }
+            if (invalid > 0) {
+                lock.lock();
+                try {
+                    invalidLines += invalid;
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return lineStart;
+        }
+    }
+
+    /**
+     * Checks if an offset is the beginning of a line, as the offsets returned by {@link #readFrom} are until
+     * the log is compacted.
+     *
+     * @param position The offset.
+     * @return True if the offset is within the log and follows a line break or is zero, otherwise false.
+     * @throws IOException If the log cannot be read.
+     */
+    public boolean isLineStart(long position) throws IOException {
+        if (position == 0) {
+            return true;
+        }
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (position < 0 || position > channel.size()) {
+                return false;
+            }
+            var buffer = ByteBuffer.allocate(1);
+            return channel.read(buffer, position - 1) == 1 && buffer.get(0) == NEWLINE;
+        }
+    }
+
+    private void addLine(List<GameResults> results, byte[] bytes, int from, int to, byte[] tail) {
+        var result = parse(new String(concat(bytes, from, to, tail), StandardCharsets.UTF_8));
+        if (result != null) {
+            results.add(result);
+        }
+    }
+
+    private static byte[] concat(byte[] bytes, int from, int to, byte[] tail) {
+        byte[] line = new byte[to - from + tail.length];
+        System.arraycopy(bytes, from, line, 0, to - from);
+        System.arraycopy(tail, 0, line, to - from, tail.length);
+        return line;
+    }
+
+    /**
+     * Checks if the last {@link #readAll()}, or a {@link #readFrom} since, skipped lines that {@link #compact()}
+     * would remove.
+     *
+     * @return True if the log holds lines that cannot be parsed, otherwise false.
+     */
+    public boolean needsCompaction() {
+        lock.lock();
+        try {
+            return invalidLines > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the log without the lines that cannot be parsed. The new log is written to a temporary file
+     * and forced to the disk before it replaces the old one, so a crash leaves either of them intact.
+     *
+     * @throws IOException If the log cannot be rewritten.
+     */
+    public void compact() throws IOException {
+        lock.lock();
+        try {
+            var results = readAll();
+            write(results);
+            invalidLines = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Parses one line of a log.
+     *
+     * @param line The line.
+     * @return The result, or {@code null} if the line does not hold one.
+     */
+    GameResults parse(String line) {
+        if (line.isBlank()) {
+            return null;
+        }
+        try {
+            var result = gson.fromJson(line, GameResults.class);
+            return result == null || result.getPlayerName() == null ? null : result;
+        } catch (JsonParseException e) {
+            return null;
+        }
+    }
+
+    private void migrate(Path legacyFile) throws IOException {
+        List<GameResults> results = List.of();
+        if (legacyFile != null && Files.exists(legacyFile)) {
+            try (BufferedReader reader = Files.newBufferedReader(legacyFile, StandardCharsets.UTF_8)) {
+                List<GameResults> legacy = gson.fromJson(reader, new TypeToken<List<GameResults>>() {
+                }.getType());
+                if (legacy != null) {
+                    results = legacy.stream().filter(result -> result != null && result.getPlayerName() != null).toList();
+                }
+            } catch (JsonParseException e) {
+                throw new IOException("Cannot migrate " + legacyFile, e);
+            }
+        }
+        write(results);
+    }
+
+    private void write(List<GameResults> results) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        var sb = new StringBuilder();
+        for (var result : results) {
+            sb.append(gson.toJson(result)).append('\n');
+        }
+        try (var channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void recover() throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long end = size;
+            var buffer = ByteBuffer.allocate(TAIL_CHUNK);
+            while (end > 0) {
+                long start = Math.max(0, end - TAIL_CHUNK);
+                buffer.clear().limit((int) (end - start));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of " + file);
+                    }
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == NEWLINE) {
+                        if (start + i + 1 < size) {
+                            channel.truncate(start + i + 1);
+                            channel.force(true);
+                        }
+                        return;
+                    }
+                }
+                end = start;
+            }
+            if (size > 0) {
+                channel.truncate(0);
+                channel.force(true);
+            }
+        }
+    }
+}
@@ -1,16 +1,43 @@
 package json;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
 import javafx.collections.FXCollections;
 
 import java.io.*;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
 public class ResultManager {
+
+    /**
+     * The log the results are saved to, see {@link ResultLog}.
+     */
+    public static final String RESULTS_FILE = "results.jsonl";
+
+    /**
+     * The JSON array file earlier versions saved the results to, which is migrated into the log.
+     */
+    public static final String LEGACY_RESULTS_FILE = "results.json";
+
+    /**
+     * The snapshot of the {@link Leaderboard} kept next to the log.
+     */
+    public static final String LEADERBOARD_FILE = "leaderboard.bin";
+
+    private static ResultWriter writer;
+
+    /**
+     * Reads the results from a JSON array file written by earlier versions.
+     *
+     * @param filePath The path of the file.
+     * @return The results, or an empty list if the file cannot be read.
+     */
     public static List<GameResults> readGameDataFromJSON(String filePath) {
         Gson gson = new Gson();
         try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
@@ -23,19 +50,123 @@ public class ResultManager {
         }
     }
 
+    /**
+     * Reads every saved result once the queued ones have been written. The log is only read, compacting it
+     * is left to the {@link ResultWriter} that appends to it.
+     *
+     * @return The results in the order they were saved, or an empty list if the log cannot be read.
+     */
+    public static List<GameResults> readResults() {
+        try {
+            awaitWritten();
+            return openLog(Path.of(RESULTS_FILE)).readAll();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return FXCollections.observableArrayList();
+        }
+    }
+
+    /**
+     * Queues a result to be saved to {@value #RESULTS_FILE} by the background {@link ResultWriter}, which is
+     * started by the first call. The writer forces the results to the disk as the {@code results.sync} system
+     * property says, {@code always}, {@code interval} or {@code never}, and with {@code interval} every
+     * {@code results.syncInterval}, an ISO-8601 duration. It is closed when the JVM shuts down.
+     *
+     * @param output The result to save.
+     * @throws IOException If the thread is interrupted while the queue is full.
+     */
     public static void saveGameDataToJSON(GameResults output) throws IOException {
-        GsonBuilder builder = new GsonBuilder().setPrettyPrinting();
-        Gson gson = builder.create();
-        builder.setPrettyPrinting().serializeNulls();
-        List<GameResults> resList = new ArrayList<>();
-        try (FileReader reader = new FileReader("results.json")) {
-            List<GameResults> sth = gson.fromJson(reader, ArrayList.class);
-            resList.addAll(sth);
-        } catch (FileNotFoundException e) {
+        try {
+            writer().submit(output);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while saving the game results");
+        }
+    }
+
+    /**
+     * Returns a future completing once every result queued by {@link #saveGameDataToJSON(GameResults)} has
+     * been written to the log.
+     *
+     * @return The future, completed exceptionally if some of the results could not be written.
+     */
+    public static synchronized CompletableFuture<Void> flush() {
+        return writer == null ? CompletableFuture.completedFuture(null) : writer.flush();
+    }
+
+    /**
+     * Returns the result queued last, which may not have been written to the log yet.
+     *
+     * @return The latest result, or {@code null} if none was queued since the start.
+     */
+    public static synchronized GameResults getLatest() {
+        return writer == null ? null : writer.getLatest();
+    }
+
+    private static synchronized ResultWriter writer() {
+        if (writer == null) {
+            var interval = System.getProperty("results.syncInterval");
+            writer = new ResultWriter(Path.of(RESULTS_FILE),
+                    SyncPolicy.valueOf(System.getProperty("results.sync", "always").toUpperCase(Locale.ROOT)),
+                    interval == null ? Duration.ofSeconds(1) : Duration.parse(interval),
+                    ResultWriter.DEFAULT_CAPACITY);
+            Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "result-writer-shutdown"));
         }
-        resList.add(output);
-        try (var writer = new FileWriter("results.json")) {
-            writer.write(gson.toJson(resList));
+        return writer;
+    }
+
+    private static void awaitWritten() throws IOException {
+        try {
+            flush().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the game results to be saved");
+        } catch (ExecutionException e) {
+            throw new IOException("Cannot save the game results", e.getCause());
         }
     }
+
+    /**
+     * Appends a result to a log synchronously, creating the log from the legacy file next to it if it does
+     * not exist yet, and brings the leaderboard next to the log up to date.
+     *
+     * @param output   The result to save.
+     * @param filePath The path of the log.
+     * @throws IOException If the result cannot be saved.
+     */
+    public static void saveGameDataToJSON(GameResults output, String filePath) throws IOException {
+        var log = openLog(Path.of(filePath));
+        log.append(output);
+        Leaderboard.open(leaderboardFile(log), log);
+    }
+
+    /**
+     * Opens the log the results are saved to. Results queued but not written yet are not in the log, see
+     * {@link #flush()}.
+     *
+     * @return The log, created from the legacy file if it did not exist yet.
+     * @throws IOException If the log cannot be opened.
+     */
+    public static ResultLog openResultLog() throws IOException {
+        return openLog(Path.of(RESULTS_FILE));
+    }
+
+    /**
+     * Opens the leaderboard of the saved results.
+     *
+     * @return The leaderboard, up to date with the log.
+     * @throws IOException If the log cannot be read or the leaderboard cannot be written.
+     */
+    public static Leaderboard openLeaderboard() throws IOException {
+        var log = openLog(Path.of(RESULTS_FILE));
+        return Leaderboard.open(leaderboardFile(log), log);
+    }
+
+    static Path leaderboardFile(ResultLog log) {
+        return log.getFile().resolveSibling(LEADERBOARD_FILE);
+    }
+
+    static ResultLog openLog(Path file) throws IOException {
+        return ResultLog.open(file, file.resolveSibling(LEGACY_RESULTS_FILE));
+    }
 }
@@ -0,0 +1,289 @@
+package json;
+
+import org.tinylog.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Saves game results to a {@link ResultLog} on a background thread, so saving a result never waits for the
+ * disk.
+ * <p>
+ * Submitted results go into a bounded queue. The writer thread takes every result waiting in the queue, up
+ * to {@value #MAX_BATCH} at a time, appends them to the log with a single write, forces them to the disk as
+ * the {@link SyncPolicy} says and brings the {@link Leaderboard} next to the log up to date. Opening the log
+ * is done by the writer thread as well. Closing the writer stops it from accepting results and waits until
+ * the queue has been drained and forced to the disk and the snapshot of the leaderboard has been written.
+ * <p>
+ * As the writer thread owns the appends, it also compacts the log: whenever reading the log for the
+ * leaderboard skipped lines that cannot be parsed, and after the first and every {@value #COMPACTION_INTERVAL}th
+ * batch, for which it reads the whole log once to look for such lines. A compaction rebuilds the leaderboard.
+ * <p>
+ * Readers that have to see every submitted result wait for {@link #flush()} before reading the log.
+ */
+public class ResultWriter implements AutoCloseable {
+
+    /**
+     * The number of results the queue holds by default.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The largest number of results written at once.
+     */
+    public static final int MAX_BATCH = 256;
+
+    /**
+     * The number of batches between two scans of the whole log for lines that cannot be parsed.
+     */
+    public static final int COMPACTION_INTERVAL = 1024;
+
+    private final Path file;
+    private final SyncPolicy policy;
+    private final long syncIntervalNanos;
+    private final BlockingQueue<Request> queue;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Thread thread;
+    private volatile GameResults latest;
+    private boolean closed;
+    private ResultLog log;
+    private Leaderboard leaderboard;
+    private boolean dirty;
+    private long lastSyncNanos;
+    private long batches;
+
+    /**
+     * A result to save, or a flush completing once every result before it has been written.
+     */
+    private record Request(GameResults result, CompletableFuture<Void> written, boolean last) {
+    }
+
+    /**
+     * Constructs a new {@code ResultWriter} and starts its thread.
+     *
+     * @param file         The file of the log, which is created from the legacy file next to it if it does
+     *                     not exist yet.
+     * @param policy       When to force the written results to the disk.
+     * @param syncInterval The time between forcing the results with {@link SyncPolicy#INTERVAL}.
+     * @param capacity     The number of results the queue holds.
+     */
+    public ResultWriter(Path file, SyncPolicy policy, Duration syncInterval, int capacity) {
+        this.file = file;
+        this.policy = policy;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = new Thread(this::run, "result-writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a result to be saved. The call only waits if the queue is full.
+     *
+     * @param result The result to save.
+     * @throws IllegalStateException If the writer has been closed.
+     * @throws InterruptedException  If the thread is interrupted while waiting for room in the queue.
+     */
+    public void submit(GameResults result) throws InterruptedException {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Result writer is closed");
+            }
+            queue.put(new Request(result, null, false));
+            latest = result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the result submitted last, which may not have been written yet.
+     *
+     * @return The latest result, or {@code null} if none was submitted.
+     */
+    public GameResults getLatest() {
+        return latest;
+    }
+
+    /**
+     * Returns a future completing once every result submitted so far has been written to the log, which
+     * makes them visible to readers of the log.
+     *
+     * @return The future, completed exceptionally if the results before it could not be written.
+     */
+    public CompletableFuture<Void> flush() {
+        var written = new CompletableFuture<Void>();
+        lock.lock();
+        try {
+            if (closed) {
+                written.complete(null);
+            } else {
+                queue.put(new Request(null, written, false));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            written.completeExceptionally(e);
+        } finally {
+            lock.unlock();
+        }
+        return written;
+    }
+
+    /**
+     * Stops accepting results and waits until the queued ones have been written and forced to the disk and the
+     * snapshot of the leaderboard has been written.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.put(new Request(null, null, true));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>(MAX_BATCH);
+        boolean last = false;
+        while (!last) {
+            try {
+                Request first = dirty && policy == SyncPolicy.INTERVAL
+                        ? queue.poll(lastSyncNanos + syncIntervalNanos - System.nanoTime(), TimeUnit.NANOSECONDS)
+                        : queue.take();
+                if (first == null) {
+                    sync();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH - 1);
+                last = write(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                // The writer thread is only stopped by closing the writer, which drains the queue first.
+            }
+        }
+        if (dirty) {
+            sync();
+        }
+        if (leaderboard != null) {
+            try {
+                leaderboard.save();
+            } catch (IOException e) {
+                Logger.error(e, "Cannot save the leaderboard");
+            }
+        }
+    }
+
+    /**
+     * Writes the results of a batch and completes the flushes in it.
+     *
+     * @return True if the batch ends the work of the writer, otherwise false.
+     */
+    private boolean write(List<Request> batch) {
+        List<GameResults> results = new ArrayList<>(batch.size());
+        for (var request : batch) {
+            if (request.result() != null) {
+                results.add(request.result());
+            }
+        }
+        IOException failure = null;
+        if (!results.isEmpty()) {
+            try {
+                if (log == null) {
+                    log = ResultManager.openLog(file);
+                }
+                log.appendAll(results, policy == SyncPolicy.ALWAYS);
+                dirty = policy != SyncPolicy.ALWAYS;
+                if (policy == SyncPolicy.INTERVAL && System.nanoTime() - lastSyncNanos >= syncIntervalNanos) {
+                    sync();
+                }
+            } catch (IOException e) {
+                Logger.error(e, "Cannot save {} game results", results.size());
+                failure = e;
+            }
+            compactIfNeeded();
+            updateLeaderboard();
+        }
+        boolean last = false;
+        for (var request : batch) {
+            if (request.written() != null) {
+                if (failure == null) {
+                    request.written().complete(null);
+                } else {
+                    request.written().completeExceptionally(failure);
+                }
+            }
+            last |= request.last();
+        }
+        return last;
+    }
+
+    private void compactIfNeeded() {
+        if (log == null) {
+            return;
+        }
+        try {
+            if (batches++ % COMPACTION_INTERVAL == 0) {
+                log.readAll();
+            }
+            if (log.needsCompaction()) {
+                log.compact();
+                leaderboard = null;
+                Files.deleteIfExists(ResultManager.leaderboardFile(log));
+            }
+        } catch (IOException e) {
+            Logger.error(e, "Cannot compact the game results");
+        }
+    }
+
+    private void updateLeaderboard() {
+        if (log == null) {
+            return;
+        }
+        try {
+            if (leaderboard == null) {
+                leaderboard = Leaderboard.open(ResultManager.leaderboardFile(log), log);
+            } else {
+                leaderboard.update();
+            }
+        } catch (IOException e) {
+            Logger.error(e, "Cannot update the leaderboard");
+        }
+    }
+
+    private void sync() {
+        lastSyncNanos = System.nanoTime();
+        if (log == null) {
+            return;
+        }
+        try {
+            log.force();
+            dirty = false;
+        } catch (IOException e) {
+            Logger.error(e, "Cannot force the game results to the disk");
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package json;
+
+/**
+ * When a {@link ResultWriter} forces the results it has written to the disk. Results are always forced
+ * when the writer is closed.
+ */
+public enum SyncPolicy {
+
+    /**
+     * Forces every batch before the next one is written, so a result is durable once it has been written.
+     */
+    ALWAYS,
+
+    /**
+     * Forces the written results at most once per interval, losing at most an interval of results in a crash
+     * of the operating system.
+     */
+    INTERVAL,
+
+    /**
+     * Leaves forcing the results to the operating system.
+     */
+    NEVER
+}
@@ -0,0 +1,18 @@
+package model;
+
+import java.util.List;
+
+/**
+ * Describes a single change of a {@link TowerPuzzleModel}, such as one move.
+ *
+ * @param positions The positions whose disk has changed, in no particular order.
+ */
+public record BoardChange(List<Position> positions) {
+
+    /**
+     * Creates a defensive copy of the positions.
+     */
+    public BoardChange {
+        positions = List.copyOf(positions);
+    }
+}
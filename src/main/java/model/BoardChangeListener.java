@@ -0,0 +1,16 @@
+package model;
+
+/**
+ * Receives one notification for every change of a {@link TowerPuzzleModel}, after all of its disk
+ * properties have been updated.
+ */
+@FunctionalInterface
+public interface BoardChangeListener {
+
+    /**
+     * Called after the board has changed.
+     *
+     * @param change The positions whose disk has changed.
+     */
+    void boardChanged(BoardChange change);
+}
@@ -3,6 +3,8 @@ package model;
 public enum Colors {
     BLUE,
     RED,
+    GREEN,
+    YELLOW,
     EMPTY;
 
 
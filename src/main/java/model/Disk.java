@@ -1,19 +1,21 @@
 package model;
 
-import java.util.Objects;
-
 /**
  * Represents a disk in the Tower Puzzle game with a specific color, position, and value.
+ * <p>
+ * Disks are immutable. The disks of a board are created once per {@link PuzzleConfig} and shared by every
+ * board of the dimensions, see {@link #of(PuzzleConfig, Colors, int, Position)}.
  */
 public class Disk {
-    private Colors colors;
-    private Position position;
-    private int value;
+
+    private final Colors colors;
+    private final Position position;
+    private final int value;
 
     /**
      * Constructs a new {@code Disk} with the specified color, position, and value.
      *
-     * @param colors   The color of the disk which can be blue,red or empty.
+     * @param colors   The color of the disk, or empty.
      * @param position The position of the disk.
      * @param value    The value of the disk.
      */
@@ -24,6 +26,28 @@ public class Disk {
         this.value = value;
     }
 
+    /**
+     * Returns the disk with the specified color, value and position on a board, sharing a single instance
+     * per combination if the disk and the position belong to the board.
+     *
+     * @param config   The dimensions of the board.
+     * @param colors   The color of the disk, or empty.
+     * @param value    The value of the disk, {@code 0} for an empty one.
+     * @param position The position of the disk.
+     * @return The shared disk, or a new one if the disk or the position does not belong to the board.
+     */
+    public static Disk of(PuzzleConfig config, Colors colors, int value, Position position) {
+        int row = position.row();
+        int col = position.col();
+        int color = config.colorIndex(colors);
+        boolean empty = colors == Colors.EMPTY && value == 0;
+        if (row < 0 || row >= config.rowSize() || col < 0 || col >= config.rods()
+                || !empty && (color < 0 || value < 1 || value > config.disksPerColor())) {
+            return new Disk(colors, position, value);
+        }
+        return DiskTable.of(config).get(row, col, empty ? -1 : color * config.disksPerColor() + value - 1);
+    }
+
     public Colors getColors() {
         return colors;
     }
@@ -47,7 +71,7 @@ public class Disk {
 
     @Override
     public int hashCode() {
-        return Objects.hash(colors, position, value);
+        return (31 * colors.ordinal() + position.hashCode()) * 31 + value;
     }
 
     /**
@@ -62,6 +86,8 @@ public class Disk {
         return switch (colors) {
             case RED -> "R" + value;
             case BLUE -> "B" + value;
+            case GREEN -> "G" + value;
+            case YELLOW -> "Y" + value;
             case EMPTY -> "E" + value;
         };
     }
@@ -0,0 +1,78 @@
+package model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The disks of a board, one for every disk and for the empty disk in every cell.
+ * <p>
+ * The table is filled when it is created and created once per {@link PuzzleConfig}, so asking a board for its
+ * cells allocates nothing and the number of disks kept follows the dimensions of the boards actually played.
+ * Boards with more than {@value #MAX_SIZE} combinations of a cell and a disk get no table, and their disks are
+ * created when they are asked for.
+ */
+final class DiskTable {
+
+    /**
+     * The largest number of disks kept for a board.
+     */
+    static final int MAX_SIZE = 1 << 16;
+
+    private static final Map<PuzzleConfig, DiskTable> TABLES = new ConcurrentHashMap<>();
+
+    private final PuzzleConfig config;
+    private final int entriesPerCell;
+    private final Disk[] disks;
+
+    private DiskTable(PuzzleConfig config) {
+        this.config = config;
+        this.entriesPerCell = config.diskCount() + 1;
+        long size = (long) config.rowSize() * config.rods() * entriesPerCell;
+        this.disks = new Disk[size > MAX_SIZE ? 0 : (int) size];
+        for (int row = 0; row < config.rowSize() && disks.length > 0; row++) {
+            for (int col = 0; col < config.rods(); col++) {
+                for (int disk = -1; disk < config.diskCount(); disk++) {
+                    disks[index(row, col, disk)] = create(row, col, disk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the disks of a board.
+     *
+     * @param config The dimensions of the board.
+     * @return The shared disks of the dimensions.
+     */
+    static DiskTable of(PuzzleConfig config) {
+        return TABLES.computeIfAbsent(config, DiskTable::new);
+    }
+
+    /**
+     * Returns the disk in a cell.
+     *
+     * @param row  The row index of the cell.
+     * @param col  The column index of the cell.
+     * @param disk The index of the disk, see {@link PackedBoard#disk(Colors, int)}, or {@code -1} for an
+     *             empty cell.
+     * @return The shared disk, or a new one if the board has no table.
+     */
+    Disk get(int row, int col, int disk) {
+        if (disks.length == 0) {
+            return create(row, col, disk);
+        }
+        return disks[index(row, col, disk)];
+    }
+
+    private int index(int row, int col, int disk) {
+        return (row * config.rods() + col) * entriesPerCell + disk + 1;
+    }
+
+    private Disk create(int row, int col, int disk) {
+        if (disk < 0) {
+            return new Disk(Colors.EMPTY, Position.of(row, col), 0);
+        }
+        return new Disk(config.color(disk / config.disksPerColor()), Position.of(row, col),
+                disk % config.disksPerColor() + 1);
+    }
+}
@@ -0,0 +1,79 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * Records the moves of a game in one byte per move, the source rod in the high and the target rod in the low
+ * four bits, which is enough for boards of up to {@link #MAX_RODS} rods.
+ */
+public final class MoveLog {
+
+    /**
+     * The largest number of rods a move log can record.
+     */
+    public static final int MAX_RODS = 1 << 4;
+
+    private static final int ROD_BITS = 4;
+    private static final int ROD_MASK = (1 << ROD_BITS) - 1;
+
+    private byte[] moves = new byte[64];
+    private int size;
+
+    /**
+     * Records a move.
+     *
+     * @param from The index of the rod the disk was taken from.
+     * @param to   The index of the rod the disk was placed onto.
+     * @throws IllegalArgumentException If either index is not below {@link #MAX_RODS}.
+     */
+    public void add(int from, int to) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = encode(PackedMove.of(from, to));
+    }
+
+    /**
+     * Returns the number of recorded moves.
+     *
+     * @return The number of moves.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the recorded moves.
+     *
+     * @return A new array holding one byte per move.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * Encodes a move into a byte.
+     *
+     * @param move The move encoded by {@link PackedMove}.
+     * @return The byte of the move.
+     * @throws IllegalArgumentException If either rod of the move is not below {@link #MAX_RODS}.
+     */
+    public static byte encode(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if (from >= MAX_RODS || to >= MAX_RODS) {
+            throw new IllegalArgumentException("Rod out of range: " + PackedMove.toString(move));
+        }
+        return (byte) (from << ROD_BITS | to);
+    }
+
+    /**
+     * Decodes the byte of a move.
+     *
+     * @param move The byte of the move.
+     * @return The move encoded by {@link PackedMove}.
+     */
+    public static int decode(byte move) {
+        return PackedMove.of(move >> ROD_BITS & ROD_MASK, move & ROD_MASK);
+    }
+}
@@ -0,0 +1,595 @@
+package model;
+
+import puzzle.TwoPhaseMoveState;
+
+/**
+ * Encodes a complete Tower Puzzle board into a single {@code long}.
+ * <p>
+ * The disks of a board are numbered by color and size: the disk of the color with index {@code c}
+ * (see {@link PuzzleConfig#color(int)}) and size {@code s} is disk {@code c * disksPerColor + s - 1}.
+ * Each disk owns a fixed field of the encoding holding the rod it lies on and its rank among the disks of
+ * the same size on that rod, {@code 0} being the lowest one. The disks of a rod are always ordered by
+ * size, so these fields determine the whole board, and the standard board fits into {@code 24} bits.
+ * <p>
+ * Two boards are equal exactly when their encodings are equal, so packed states can be compared and hashed
+ * as plain primitives. As every size has a disk of at least two colors, no board encodes to zero, which
+ * is left free for empty slots of hash tables. A board may also be restricted to a subset of its disks with {@link #restrict(long)},
+ * in which case the fields of the other disks are always zero.
+ */
+public final class PackedBoard {
+
+    /**
+     * The encoding of the {@link PuzzleConfig#STANDARD} board.
+     */
+    public static final PackedBoard STANDARD = new PackedBoard(PuzzleConfig.STANDARD);
+
+    /**
+     * The disk index returned by {@link #top(long, int)} for an empty rod.
+     */
+    public static final int NO_DISK = -1;
+
+    private static final int TOP_BITS = 8;
+
+    private final PuzzleConfig config;
+    private final int rods;
+    private final int disksPerColor;
+    private final int rodBits;
+    private final int fieldBits;
+    private final long fieldMask;
+    private final long rodMask;
+    private final long present;
+    private final int[] order;
+    private final long solved;
+    private final int symmetries;
+
+    /**
+     * Constructs the encoding of the boards with the given dimensions.
+     *
+     * @param config The dimensions of the board.
+     * @throws IllegalArgumentException If the board does not fit into a {@code long}.
+     */
+    public PackedBoard(PuzzleConfig config) {
+        this(config, config.diskCount() >= Long.SIZE ? -1L : (1L << config.diskCount()) - 1);
+    }
+
+    private PackedBoard(PuzzleConfig config, long present) {
+        this.config = config;
+        this.rods = config.rods();
+        this.disksPerColor = config.disksPerColor();
+        this.rodBits = bitsFor(rods - 1);
+        this.fieldBits = fieldBits(config);
+        if (!fits(config)) {
+            throw new IllegalArgumentException("Board " + config + " needs " + fieldBits * config.diskCount() + " bits");
+        }
+        this.fieldMask = (1L << fieldBits) - 1;
+        this.rodMask = (1L << rodBits) - 1;
+        this.present = present;
+        this.order = new int[Long.bitCount(present)];
+        int index = 0;
+        for (int size = 1; size <= disksPerColor; size++) {
+            for (int color = 0; color < config.colors(); color++) {
+                int disk = color * disksPerColor + size - 1;
+                if ((present >>> disk & 1) != 0) {
+                    order[index++] = disk;
+                }
+            }
+        }
+        this.solved = computeSolvedState();
+        this.symmetries = isClosedUnderRotation() ? config.colors() : 1;
+    }
+
+    /**
+     * Checks if the boards with the given dimensions can be encoded.
+     *
+     * @param config The dimensions of the board.
+     * @return True if every board fits into a {@code long}, otherwise false.
+     */
+    public static boolean fits(PuzzleConfig config) {
+        return (long) fieldBits(config) * config.diskCount() <= Long.SIZE;
+    }
+
+    /**
+     * Returns the dimensions of the board.
+     *
+     * @return The dimensions of the board.
+     */
+    public PuzzleConfig config() {
+        return config;
+    }
+
+    /**
+     * Returns the encoding of the boards holding only some of the disks of this board.
+     *
+     * @param disks A bit mask with bit {@code d} set if disk {@code d} is kept.
+     * @return The encoding of the restricted board.
+     */
+    public PackedBoard restrict(long disks) {
+        return new PackedBoard(config, present & disks);
+    }
+
+    /**
+     * Returns the largest number of moves possible from a state.
+     *
+     * @return The number of ordered pairs of distinct rods.
+     */
+    public int maxSuccessors() {
+        return rods * (rods - 1);
+    }
+
+    /**
+     * Returns the index of a disk.
+     *
+     * @param color The color of the disk.
+     * @param size  The size of the disk.
+     * @return The index of the disk.
+     */
+    public int disk(Colors color, int size) {
+        return config.colorIndex(color) * disksPerColor + size - 1;
+    }
+
+    /**
+     * Returns the size of a disk.
+     *
+     * @param disk The index of the disk.
+     * @return The size of the disk.
+     */
+    public int size(int disk) {
+        return disk % disksPerColor + 1;
+    }
+
+    /**
+     * Returns the color of a disk.
+     *
+     * @param disk The index of the disk.
+     * @return The color of the disk.
+     */
+    public Colors color(int disk) {
+        return config.color(disk / disksPerColor);
+    }
+
+    /**
+     * Returns the rod a disk lies on.
+     *
+     * @param state The packed state.
+     * @param disk  The index of the disk.
+     * @return The index of the rod.
+     */
+    public int rod(long state, int disk) {
+        return (int) (state >>> (disk * fieldBits) & rodMask);
+    }
+
+    /**
+     * Returns the number of disks on a rod.
+     *
+     * @param state The packed state.
+     * @param rod   The index of the rod.
+     * @return The number of disks on the rod.
+     */
+    public int height(long state, int rod) {
+        int height = 0;
+        for (int disk : order) {
+            if (rod(state, disk) == rod) {
+                height++;
+            }
+        }
+        return height;
+    }
+
+    /**
+     * Collects the disks of a rod.
+     *
+     * @param state The packed state.
+     * @param rod   The index of the rod.
+     * @param disks The array receiving the indices of the disks from the bottom to the top of the rod.
+     * @return The number of disks on the rod.
+     */
+    public int stack(long state, int rod, int[] disks) {
+        int height = 0;
+        for (int i = order.length - 1; i >= 0; ) {
+            int size = size(order[i]);
+            int base = height;
+            for (; i >= 0 && size(order[i]) == size; i--) {
+                if (rod(state, order[i]) == rod) {
+                    disks[base + rank(state, order[i])] = order[i];
+                    height++;
+                }
+            }
+        }
+        return height;
+    }
+
+    /**
+     * Returns the top disk of a rod.
+     *
+     * @param state The packed state.
+     * @param rod   The index of the rod.
+     * @return The index of the top disk, or {@link #NO_DISK} if the rod is empty.
+     */
+    public int top(long state, int rod) {
+        return topOf(tops(state), rod);
+    }
+
+    /**
+     * Checks whether the top disk of one rod may be placed onto another one.
+     *
+     * @param state The packed state.
+     * @param from  The index of the rod the disk is taken from.
+     * @param to    The index of the rod the disk is placed onto.
+     * @return True if the source rod is not empty, the rods differ and the target rod is either empty
+     * or its top disk is not smaller than the moved one, otherwise false.
+     */
+    public boolean isLegalMove(long state, int from, int to) {
+        if (from == to) {
+            return false;
+        }
+        long tops = tops(state);
+        int disk = topOf(tops, from);
+        int target = topOf(tops, to);
+        return disk != NO_DISK && (target == NO_DISK || size(disk) <= size(target));
+    }
+
+    /**
+     * Moves the top disk of one rod onto another one without checking the legality of the move.
+     *
+     * @param state The packed state.
+     * @param from  The index of the rod the disk is taken from.
+     * @param to    The index of the rod the disk is placed onto.
+     * @return The packed state after the move.
+     */
+    public long move(long state, int from, int to) {
+        return moveDisk(state, top(state, from), to);
+    }
+
+    /**
+     * Collects the states reachable by a single legal move.
+     *
+     * @param state      The packed state.
+     * @param successors The array receiving the successors, at least {@link #maxSuccessors()} long.
+     * @return The number of successors.
+     */
+    public int successors(long state, long[] successors) {
+        return successors(state, successors, 0);
+    }
+
+    /**
+     * Collects the states reachable by a single legal move into a part of an array.
+     *
+     * @param state      The packed state.
+     * @param successors The array receiving the successors.
+     * @param offset     The index of the first element of the array receiving a successor, followed by at least
+     *                   {@link #maxSuccessors()} elements.
+     * @return The number of successors.
+     */
+    public int successors(long state, long[] successors, int offset) {
+        long tops = tops(state);
+        int count = 0;
+        for (int from = 0; from < rods; from++) {
+            int disk = topOf(tops, from);
+            if (disk == NO_DISK) {
+                continue;
+            }
+            for (int to = 0; to < rods; to++) {
+                int target = topOf(tops, to);
+                if (to != from && (target == NO_DISK || size(disk) <= size(target))) {
+                    successors[offset + count++] = moveDisk(state, disk, to);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the move leading from one state to another.
+     *
+     * @param state The packed state before the move.
+     * @param next  The packed state after the move.
+     * @return The indices of the source and the target rod.
+     * @throws IllegalArgumentException If the states are not connected by a legal move.
+     */
+    public int[] moveBetween(long state, long next) {
+        long difference = state ^ next;
+        if (difference != 0) {
+            int disk = Long.numberOfTrailingZeros(difference) / fieldBits;
+            int from = rod(state, disk);
+            int to = rod(next, disk);
+            if (isLegalMove(state, from, to) && move(state, from, to) == next) {
+                return new int[]{from, to};
+            }
+        }
+        throw new IllegalArgumentException("States are not adjacent");
+    }
+
+    /**
+     * Translates a rod-to-rod move into the cell positions used by {@link TowerPuzzleState}.
+     *
+     * @param state The packed state before the move.
+     * @param from  The index of the rod the disk is taken from.
+     * @param to    The index of the rod the disk is placed onto.
+     * @return The move from the cell of the top disk of the source rod to the first free cell of the target rod.
+     */
+    public TwoPhaseMoveState.TwoPhaseMove<Position> toMove(long state, int from, int to) {
+        return new TwoPhaseMoveState.TwoPhaseMove<>(
+                Position.of(config.rowSize() - height(state, from), from),
+                Position.of(config.rowSize() - 1 - height(state, to), to));
+    }
+
+    /**
+     * Checks if the packed state is solved in the sense of {@link TowerPuzzleState#isSolved()}.
+     *
+     * @param state The packed state.
+     * @return True if the disks of each color are stacked on the rod of that color.
+     */
+    public boolean isSolved(long state) {
+        return state == solved;
+    }
+
+    /**
+     * Returns every packed state accepted by {@link #isSolved(long)}.
+     * <p>
+     * The goal only constrains the lowest {@code disksPerColor} levels of the colored rods. As there are
+     * exactly that many disks of each color and a rod is always ordered by size, the only such board holds
+     * the disks of each color on their own rod, largest at the bottom.
+     *
+     * @return The solved states.
+     */
+    public long[] solvedStates() {
+        return new long[]{solved};
+    }
+
+    /**
+     * Returns the number of symmetries of the boards, the identity included.
+     * <p>
+     * Rotating the colors together with the colored rods, so that the disks of the {@code c}-th color become
+     * disks of the next color and move to the next colored rod, maps the start position and the solved state
+     * onto themselves, and it maps moves onto moves. So a board and its rotations are equally far from the
+     * goal. With two colors the only rotation swaps the two colors and rods {@code 0} and {@code 1}.
+     *
+     * @return The number of colors, or {@code 1} if the board is restricted to disks not closed under the
+     * rotation.
+     */
+    public int symmetries() {
+        return symmetries;
+    }
+
+    /**
+     * Rotates the colors and the colored rods of a board.
+     *
+     * @param state    The packed state.
+     * @param rotation The number of steps to rotate by, between {@code 0} and {@link #symmetries()} minus one.
+     * @return The packed state of the rotated board.
+     */
+    public long rotate(long state, int rotation) {
+        if (rotation == 0) {
+            return state;
+        }
+        int colors = config.colors();
+        long rotated = 0;
+        for (int disk : order) {
+            long field = state >>> (disk * fieldBits) & fieldMask;
+            int rod = (int) (field & rodMask);
+            int target = (disk / disksPerColor + rotation) % colors * disksPerColor + disk % disksPerColor;
+            rotated |= (field & ~rodMask | rotateRod(rod, rotation)) << (target * fieldBits);
+        }
+        return rotated;
+    }
+
+    /**
+     * Returns the rod a rod becomes by rotating the board.
+     *
+     * @param rod      The index of the rod.
+     * @param rotation The number of steps to rotate by.
+     * @return The index of the rotated rod, which is the same rod if it is not a colored rod.
+     */
+    public int rotateRod(int rod, int rotation) {
+        int colors = config.colors();
+        return rod < colors ? (rod + rotation) % colors : rod;
+    }
+
+    /**
+     * Returns the rotation taking a board to its canonical form, the smallest of its rotations.
+     *
+     * @param state The packed state.
+     * @return The number of steps to rotate the board by.
+     */
+    public int canonicalRotation(long state) {
+        int best = 0;
+        long canonical = state;
+        for (int rotation = 1; rotation < symmetries; rotation++) {
+            long rotated = rotate(state, rotation);
+            if (rotated < canonical) {
+                canonical = rotated;
+                best = rotation;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the canonical form of a board, the smallest of its rotations. Boards have the same canonical
+     * form exactly when they are rotations of each other.
+     *
+     * @param state The packed state.
+     * @return The packed state of the canonical form.
+     */
+    public long canonical(long state) {
+        long canonical = state;
+        for (int rotation = 1; rotation < symmetries; rotation++) {
+            canonical = Math.min(canonical, rotate(state, rotation));
+        }
+        return canonical;
+    }
+
+    /**
+     * Encodes the given board.
+     *
+     * @param cells The board in the row-major layout used by {@link TowerPuzzleState}, the bottom row being the last one.
+     * @return The packed state of the board.
+     * @throws IllegalArgumentException If a disk is placed above an empty slot, or the disks do not match the board.
+     */
+    public long encode(Disk[][] cells) {
+        int[][] stacks = new int[rods][cells.length];
+        int[] heights = new int[rods];
+        for (int rod = 0; rod < rods; rod++) {
+            for (int row = cells.length - 1; row >= 0; row--) {
+                var disk = cells[row][rod];
+                if (disk.getColors() == Colors.EMPTY) {
+                    continue;
+                }
+                if (heights[rod] != cells.length - 1 - row) {
+                    throw new IllegalArgumentException("Disk above an empty slot at " + disk.getPosition());
+                }
+                stacks[rod][heights[rod]++] = disk(disk.getColors(), disk.getValue());
+            }
+        }
+        return pack(stacks, heights);
+    }
+
+    /**
+     * Encodes a board given as the stacks of disks on each rod.
+     *
+     * @param stacks  The indices of the disks on each rod, from the bottom to the top.
+     * @param heights The number of disks on each rod.
+     * @return The packed state of the board.
+     * @throws IllegalArgumentException If the disks do not match the board.
+     */
+    public long pack(int[][] stacks, int[] heights) {
+        long state = 0;
+        long seen = 0;
+        for (int rod = 0; rod < rods; rod++) {
+            int rank = 0;
+            for (int level = 0; level < heights[rod]; level++) {
+                int disk = stacks[rod][level];
+                rank = level > 0 && size(stacks[rod][level - 1]) == size(disk) ? rank + 1 : 0;
+                seen |= 1L << disk;
+                state |= field(rod, rank) << (disk * fieldBits);
+            }
+        }
+        if (seen != present) {
+            throw new IllegalArgumentException("Disks do not match the board " + config);
+        }
+        return state;
+    }
+
+    /**
+     * Decodes the given state into a freshly allocated board.
+     *
+     * @param state The packed state.
+     * @return The board in the row-major layout used by {@link TowerPuzzleState}.
+     */
+    public Disk[][] decode(long state) {
+        int rowSize = config.rowSize();
+        Disk[][] cells = new Disk[rowSize][rods];
+        int[] stack = new int[rowSize];
+        var disks = DiskTable.of(config);
+        for (int rod = 0; rod < rods; rod++) {
+            int height = stack(state, rod, stack);
+            for (int level = 0; level < rowSize; level++) {
+                int row = rowSize - 1 - level;
+                cells[row][rod] = disks.get(row, rod, level < height ? stack[level] : -1);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Removes the disks that are not part of this board from a state of a board with more disks.
+     *
+     * @param state The packed state of a board with the same dimensions.
+     * @return The packed state holding only the disks of this board, in the same order.
+     */
+    public long project(long state) {
+        long projected = 0;
+        for (int disk : order) {
+            int rod = rod(state, disk);
+            int rank = 0;
+            for (int color = 0; color < config.colors(); color++) {
+                int other = color * disksPerColor + size(disk) - 1;
+                if (other != disk && (present >>> other & 1) != 0
+                        && rod(state, other) == rod && rank(state, other) < rank(state, disk)) {
+                    rank++;
+                }
+            }
+            projected |= field(rod, rank) << (disk * fieldBits);
+        }
+        return projected;
+    }
+
+    /**
+     * Moves a disk onto the top of a rod without checking the legality of the move.
+     *
+     * @param state The packed state.
+     * @param disk  The index of the disk, which must be a top disk.
+     * @param to    The index of the rod the disk is placed onto.
+     * @return The packed state after the move.
+     */
+    public long moveDisk(long state, int disk, int to) {
+        int rank = 0;
+        for (int color = 0; color < config.colors(); color++) {
+            int other = color * disksPerColor + size(disk) - 1;
+            if (other != disk && (present >>> other & 1) != 0 && rod(state, other) == to) {
+                rank++;
+            }
+        }
+        int shift = disk * fieldBits;
+        return state & ~(fieldMask << shift) | field(to, rank) << shift;
+    }
+
+    /**
+     * Returns the rank of a disk among the disks of the same size on its rod.
+     *
+     * @param state The packed state.
+     * @param disk  The index of the disk.
+     * @return The number of disks of the same size below the disk.
+     */
+    public int rank(long state, int disk) {
+        return (int) (state >>> (disk * fieldBits + rodBits) & (fieldMask >>> rodBits));
+    }
+
+    private long field(int rod, int rank) {
+        return (long) rank << rodBits | rod;
+    }
+
+    private long tops(long state) {
+        long tops = 0;
+        for (int disk : order) {
+            int rod = rod(state, disk);
+            int top = topOf(tops, rod);
+            if (top == NO_DISK) {
+                tops |= (long) (disk + 1) << (rod * TOP_BITS);
+            } else if (size(top) == size(disk) && rank(state, disk) > rank(state, top)) {
+                tops += (long) (disk - top) << (rod * TOP_BITS);
+            }
+        }
+        return tops;
+    }
+
+    private static int topOf(long tops, int rod) {
+        return (int) (tops >>> (rod * TOP_BITS) & ((1 << TOP_BITS) - 1)) - 1;
+    }
+
+    private long computeSolvedState() {
+        long state = 0;
+        for (int disk : order) {
+            state |= field(disk / disksPerColor, 0) << (disk * fieldBits);
+        }
+        return state;
+    }
+
+    private boolean isClosedUnderRotation() {
+        for (int disk : order) {
+            int next = (disk / disksPerColor + 1) % config.colors() * disksPerColor + disk % disksPerColor;
+            if ((present >>> next & 1) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int fieldBits(PuzzleConfig config) {
+        return bitsFor(config.rods() - 1) + bitsFor(config.colors() - 1);
+    }
+
+    private static int bitsFor(int value) {
+        return Integer.SIZE - Integer.numberOfLeadingZeros(value);
+    }
+}
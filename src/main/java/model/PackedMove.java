@@ -0,0 +1,57 @@
+package model;
+
+/**
+ * Encodes a move of the top disk of one rod onto another rod into a single {@code int}.
+ * <p>
+ * The index of the source rod is stored in the second lowest byte and the index of the target rod in the
+ * lowest byte, so moves can be passed around, stored and compared without allocating any object.
+ */
+public final class PackedMove {
+
+    private static final int ROD_BITS = 8;
+    private static final int ROD_MASK = (1 << ROD_BITS) - 1;
+
+    private PackedMove() {
+    }
+
+    /**
+     * Encodes a move.
+     *
+     * @param from The index of the rod the disk is taken from.
+     * @param to   The index of the rod the disk is placed onto.
+     * @return The encoded move.
+     */
+    public static int of(int from, int to) {
+        return from << ROD_BITS | to;
+    }
+
+    /**
+     * Returns the rod the disk of a move is taken from.
+     *
+     * @param move The encoded move.
+     * @return The index of the source rod.
+     */
+    public static int from(int move) {
+        return move >>> ROD_BITS;
+    }
+
+    /**
+     * Returns the rod the disk of a move is placed onto.
+     *
+     * @param move The encoded move.
+     * @return The index of the target rod.
+     */
+    public static int to(int move) {
+        return move & ROD_MASK;
+    }
+
+    /**
+     * Returns a string representation of a move.
+     *
+     * @param move The encoded move.
+     * @return The source and the target rod separated by an arrow.
+     */
+    public static String toString(int move) {
+        return from(move) + " -> " + to(move);
+    }
+}
@@ -1,8 +1,50 @@
 package model;
 
-import java.util.Objects;
-
+/**
+ * A cell of the board given by its row and column.
+ * <p>
+ * The positions of every board that fits into {@link #MAX_ROWS} rows and {@link #MAX_COLS} columns are
+ * created once and shared, so {@link #of(int, int)} allocates nothing for them.
+ *
+ * @param row The row index, {@code 0} being the top row.
+ * @param col The column index, which is also the index of the rod.
+ */
 public record Position(int row, int col) {
+
+    /**
+     * The number of rows whose positions are shared.
+     */
+    public static final int MAX_ROWS = 64;
+
+    /**
+     * The number of columns whose positions are shared.
+     */
+    public static final int MAX_COLS = 8;
+
+    private static final Position[] POSITIONS = new Position[MAX_ROWS * MAX_COLS];
+
+    static {
+        for (int row = 0; row < MAX_ROWS; row++) {
+            for (int col = 0; col < MAX_COLS; col++) {
+                POSITIONS[row * MAX_COLS + col] = new Position(row, col);
+            }
+        }
+    }
+
+    /**
+     * Returns the position of a cell, sharing a single instance per cell where possible.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The position.
+     */
+    public static Position of(int row, int col) {
+        if (row >= 0 && row < MAX_ROWS && col >= 0 && col < MAX_COLS) {
+            return POSITIONS[row * MAX_COLS + col];
+        }
+        return new Position(row, col);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -13,6 +55,6 @@ public record Position(int row, int col) {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 }
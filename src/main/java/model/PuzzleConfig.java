@@ -0,0 +1,93 @@
+package model;
+
+/**
+ * The dimensions of a Tower Puzzle board.
+ * <p>
+ * Every color has one disk of each size from {@code 1} to {@code disksPerColor}. At the start the colored
+ * rods hold one disk of every size each, the colors rotating from level to level, and the remaining rods
+ * are empty. The puzzle is solved once the disks of the {@code i}-th color of {@link #color(int)} are
+ * stacked on the {@code i}-th rod.
+ *
+ * @param rods          The number of rods, which must exceed the number of colors.
+ * @param colors        The number of colors, between {@code 2} and {@code 4}.
+ * @param disksPerColor The number of disks of each color, at most {@value #MAX_DISKS} disks in total.
+ */
+public record PuzzleConfig(int rods, int colors, int disksPerColor) {
+
+    private static final Colors[] GOAL_ORDER = {Colors.RED, Colors.BLUE, Colors.GREEN, Colors.YELLOW};
+    private static final int MAX_RODS = 8;
+
+    /**
+     * The largest number of disks on a board, as every cell of a {@link TowerPuzzleState} holds the number of
+     * its disk in a byte.
+     */
+    public static final int MAX_DISKS = Byte.MAX_VALUE - 1;
+
+    /**
+     * The original board: three rods with four red and four blue disks.
+     */
+    public static final PuzzleConfig STANDARD = new PuzzleConfig(3, 2, 4);
+
+    /**
+     * Validates the dimensions.
+     *
+     * @throws IllegalArgumentException If the dimensions do not describe a solvable board.
+     */
+    public PuzzleConfig {
+        if (colors < 2 || colors > GOAL_ORDER.length) {
+            throw new IllegalArgumentException("Number of colors must be between 2 and " + GOAL_ORDER.length);
+        }
+        if (rods <= colors || rods > MAX_RODS) {
+            throw new IllegalArgumentException("Number of rods must be between " + (colors + 1) + " and " + MAX_RODS);
+        }
+        if (disksPerColor < 1) {
+            throw new IllegalArgumentException("There must be at least one disk of each color");
+        }
+        if (disksPerColor > MAX_DISKS / colors) {
+            throw new IllegalArgumentException("There must be at most " + MAX_DISKS + " disks");
+        }
+    }
+
+    /**
+     * Returns the number of rows of the board, which is enough for stacking every disk onto one rod.
+     *
+     * @return The number of rows.
+     */
+    public int rowSize() {
+        return colors * disksPerColor;
+    }
+
+    /**
+     * Returns the total number of disks.
+     *
+     * @return The number of disks.
+     */
+    public int diskCount() {
+        return colors * disksPerColor;
+    }
+
+    /**
+     * Returns a color of the board.
+     *
+     * @param index The index of the color, which is also the index of the rod its disks have to be moved to.
+     * @return The color.
+     */
+    public Colors color(int index) {
+        return GOAL_ORDER[index];
+    }
+
+    /**
+     * Returns the index of a color of the board.
+     *
+     * @param color The color.
+     * @return The index of the color, or {@code -1} if the color is not used on the board.
+     */
+    public int colorIndex(Colors color) {
+        for (int i = 0; i < colors; i++) {
+            if (GOAL_ORDER[i] == color) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
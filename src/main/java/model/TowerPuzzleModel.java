@@ -2,77 +2,169 @@ package model;
 
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.ReadOnlyObjectWrapper;
-import lombok.Setter;
 import puzzle.TwoPhaseMoveState;
 
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.function.IntConsumer;
 
 /**
  * Represents the model for the Tower Puzzle game.
  * Implements the {@link TwoPhaseMoveState} interface with {@link Position}.
  * The Tower Puzzle involves moving disks of different colors and sizes
- * across three rods to achieve a specific goal state.
+ * across the rods to achieve a specific goal state. The dimensions of the board are given
+ * by a {@link PuzzleConfig}; the constants describe the {@link PuzzleConfig#STANDARD} board.
+ * <p>
+ * The rules and the board itself are implemented by a {@link TowerPuzzleState}, which does not depend on
+ * JavaFX. This class only adds a read-only property for every cell, kept up to date from the change
+ * events of the state, and delegates everything else.
  */
 public class TowerPuzzleModel implements TwoPhaseMoveState<Position> {
 
-    @Setter
-    private Disk[][] rods;
     public static final int COL_SIZE = 3;
-    private static final int NUMBER_OF_DISKS = 4;
-    public static int ROW_SIZE = NUMBER_OF_DISKS * 2;
+    public static final int NUMBER_OF_DISKS = 4;
+    public static final int ROW_SIZE = NUMBER_OF_DISKS * 2;
 
-    private ReadOnlyObjectWrapper<Disk>[][] rodsWrapper = new ReadOnlyObjectWrapper[ROW_SIZE][COL_SIZE];
+    private final TowerPuzzleState state;
+    private final ReadOnlyObjectWrapper<Disk>[][] rodsWrapper;
 
     /**
-     * Constructs a new {@code TowerPuzzleModel} with the specified number of disks.
-     * <p>
-     * Initializes the first half {@code rods} array with empty disks, then sets up the initial
-     * state of the puzzle with  blue and red disks on the rods.
+     * Constructs a new {@code TowerPuzzleModel} of the {@link PuzzleConfig#STANDARD} board.
      * <p>
      * The disks are arranged such that the largest disk is at the bottom, and the
      * colors alternate between blue and red. The last rod is empty.
      */
 
     public TowerPuzzleModel() {
+        this(PuzzleConfig.STANDARD);
+    }
+
+    /**
+     * Constructs a new {@code TowerPuzzleModel} of a board with the given dimensions.
+     *
+     * @param config The dimensions of the board.
+     * @see TowerPuzzleState#TowerPuzzleState(PuzzleConfig)
+     */
+    public TowerPuzzleModel(PuzzleConfig config) {
+        this(new TowerPuzzleState(config));
+    }
+
+    /**
+     * Constructs a new {@code TowerPuzzleModel} of the {@link PuzzleConfig#STANDARD} board from a packed state.
+     *
+     * @param packedState The state of the board encoded by {@link PackedBoard#STANDARD}.
+     */
+    public TowerPuzzleModel(long packedState) {
+        this(new TowerPuzzleState(packedState));
+    }
+
+    /**
+     * Constructs a new {@code TowerPuzzleModel} of a board with the given dimensions from a packed state.
+     *
+     * @param config      The dimensions of the board.
+     * @param packedState The state of the board encoded by the {@link PackedBoard} of the dimensions.
+     */
+    public TowerPuzzleModel(PuzzleConfig config, long packedState) {
+        this(new TowerPuzzleState(config, packedState));
+    }
 
-        this.rods = new Disk[ROW_SIZE][COL_SIZE];
-        for (int i = 0; i < NUMBER_OF_DISKS; i++) {
-            for (int j = 0; j < 3; j++) {
-                this.rods[i][j] = new Disk(Colors.EMPTY, new Position(i, j), 0);
+    /**
+     * Constructs a new {@code TowerPuzzleModel} showing the given state, which is then updated by the model.
+     *
+     * @param state The state of the board.
+     */
+    @SuppressWarnings("unchecked")
+    public TowerPuzzleModel(TowerPuzzleState state) {
+        this.state = state;
+        int rowSize = state.getConfig().rowSize();
+        int colSize = state.getConfig().rods();
+        this.rodsWrapper = new ReadOnlyObjectWrapper[rowSize][colSize];
+        for (int i = 0; i < rowSize; i++) {
+            for (int j = 0; j < colSize; j++) {
+                rodsWrapper[i][j] = new ReadOnlyObjectWrapper<>(state.getDisk(i, j));
             }
         }
-        int size = NUMBER_OF_DISKS;
-        boolean isBlue = true;
-        for (int i = ROW_SIZE - 1; i >= NUMBER_OF_DISKS; i--) {
-            if (isBlue) {
-                this.rods[i][0] = new Disk(Colors.BLUE, new Position(i, 0), size);
-                this.rods[i][1] = new Disk(Colors.RED, new Position(i, 1), size);
-            } else if (!isBlue) {
-                this.rods[i][1] = new Disk(Colors.BLUE, new Position(i, 1), size);
-                this.rods[i][0] = new Disk(Colors.RED, new Position(i, 0), size);
-            }
-            this.rods[i][2] = new Disk(Colors.EMPTY, new Position(i, 2), 0);
+        state.addBoardChangeListener(this::update);
+    }
 
-            isBlue = !isBlue;
-            size -= 1;
-        }
-        copy();
+    /**
+     * Returns the state of the board shown by this model.
+     *
+     * @return The state, whose changes are reflected by the properties of this model.
+     */
+    public TowerPuzzleState getState() {
+        return state;
+    }
 
+    /**
+     * Returns the dimensions of the board.
+     *
+     * @return The dimensions of the board.
+     */
+    public PuzzleConfig getConfig() {
+        return state.getConfig();
     }
 
+    /**
+     * Returns the encoding of the board.
+     *
+     * @return The {@link PackedBoard} of the dimensions of the board.
+     * @throws IllegalArgumentException If the board does not fit into a {@code long}.
+     */
+    public PackedBoard getBoard() {
+        return state.getBoard();
+    }
 
     /**
-     * Copies the rods array to the rodsWrapper array.
-     * This method is used to create a read-only wrapper for the rods array
-     * which is necessary for JavaFX bindings.
+     * Returns the current state of the board encoded by {@link #getBoard()}.
+     *
+     * @return The packed state of the board.
+     * @throws IllegalArgumentException If the board does not fit into a {@code long}.
      */
-    private void copy() {
-        for (int i = 0; i < this.ROW_SIZE; i++) {
-            for (int j = 0; j < COL_SIZE; j++) {
-                rodsWrapper[i][j] = new ReadOnlyObjectWrapper<>(rods[i][j]);
-            }
+    public long toPackedState() {
+        return state.toPackedState();
+    }
+
+    /**
+     * Returns the Zobrist hash of the board.
+     *
+     * @return The 64-bit fingerprint of the board.
+     * @see TowerPuzzleState#fingerprint()
+     */
+    public long fingerprint() {
+        return state.fingerprint();
+    }
+
+    /**
+     * Replaces the disks of the board, updating every disk property and notifying the listeners once.
+     *
+     * @param rods The new board in the row-major layout, the bottom row being the last one.
+     */
+    public void setRods(Disk[][] rods) {
+        state.setRods(rods);
+    }
+
+    /**
+     * Registers a listener notified once after every change of the board, when the disk properties
+     * are already up to date.
+     *
+     * @param listener The listener to add.
+     */
+    public void addBoardChangeListener(BoardChangeListener listener) {
+        state.addBoardChangeListener(listener);
+    }
+
+    /**
+     * Removes a listener registered by {@link #addBoardChangeListener(BoardChangeListener)}.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeBoardChangeListener(BoardChangeListener listener) {
+        state.removeBoardChangeListener(listener);
+    }
+
+    private void update(BoardChange change) {
+        for (var position : change.positions()) {
+            rodsWrapper[position.row()][position.col()].set(state.getDisk(position));
         }
     }
 
@@ -88,177 +180,168 @@ public class TowerPuzzleModel implements TwoPhaseMoveState<Position> {
 
     }
 
-    /**
-     * Checks if it is legal to move a disk from the specified position.
-     *
-     * @param position The position to check.
-     * @return True if the disk at the specified position is not empty , otherwise false.
-     */
     @Override
     public boolean isLegalToMoveFrom(Position position) {
+        return state.isLegalToMoveFrom(position);
+    }
 
-        return getDisk(position).getColors() != Colors.EMPTY;
+    @Override
+    public boolean isSolved() {
+        return state.isSolved();
     }
 
     /**
-     * Checks if the puzzle is solved.
+     * Returns the number of disks on a rod.
      *
-     * @return True if all red disks are placed in increasing order on the first rod,
-     * and all blue disks are placed in increasing order on the second rod, otherwise false.
+     * @param rod The index of the rod.
+     * @return The number of disks on the rod.
      */
+    public int getHeight(int rod) {
+        return state.getHeight(rod);
+    }
 
-    @Override
-    public boolean isSolved() {
-
+    /**
+     * Returns the positions of the top disks on each rod.
+     *
+     * @return A set containing the positions of the top disks on each rod.
+     * @see TowerPuzzleState#getTopDisks()
+     */
+    public Set<Position> getTopDisks() {
+        return state.getTopDisks();
+    }
 
-        boolean isRight = true;
-        for (int i = NUMBER_OF_DISKS; i < rods.length; i++) {
-            if (rods[i][0].getColors() != Colors.RED) {
-                isRight = false;
-                break;
-            }
-            if (rods[i][1].getColors() != Colors.BLUE) {
-                isRight = false;
-                break;
-            }
-        }
-        return isRight;
+    /**
+     * Checks if a position holds the top disk of its rod.
+     *
+     * @param position The position to check.
+     * @return True if the rod is not empty and the position is its topmost occupied cell, otherwise false.
+     */
+    public boolean isTopDisk(Position position) {
+        return state.isTopDisk(position);
+    }
 
+    /**
+     * Checks if a position is the cell a disk moved onto its rod would occupy.
+     *
+     * @param position The position to check.
+     * @return True if the position is the lowest empty cell of its rod, otherwise false.
+     */
+    public boolean isLegalToMoveTo(Position position) {
+        return state.isLegalToMoveTo(position);
     }
 
     /**
-     * Returns the positions of the top disks on each rod.
-     * If a non-empty disk is found (i.e., not at the topmost row), its position is added to the set.
-     * Additionally, if the top disk position is not found for a rod, it adds a default position
-     * so the top disk is basically at the bottom (empty) position.
+     * Checks if an encoded move is legal.
      *
-     * @return A set containing the positions of the top disks on each rod.
+     * @param move The move encoded by {@link PackedMove}.
+     * @return True if the move is legal, otherwise false.
+     * @see TowerPuzzleState#isLegalMove(int, int)
      */
+    public boolean isLegalMove(int move) {
+        return state.isLegalMove(move);
+    }
 
-    public Set<Position> getTopDisks() {
-        Set<Position> positions = new HashSet<>();
-        for (int i = 0; i < COL_SIZE; i++) {
-            for (int j = 0; j < ROW_SIZE; j++) {
-                if (this.rods[j][i].getColors() != Colors.EMPTY) {
-                    positions.add(this.rods[j][i].getPosition());
-                    break;
-                }
-            }
-            if (positions.size() != i + 1) {
-                positions.add(new Position(ROW_SIZE - 1, i));
-            }
-        }
-        return positions;
+    /**
+     * Passes every legal move of the current state to a callback without allocating any object.
+     *
+     * @param action The callback receiving the moves encoded by {@link PackedMove}.
+     */
+    public void forEachLegalMove(IntConsumer action) {
+        state.forEachLegalMove(action);
     }
 
     /**
-     * Returns a set of legal moves that can be made from the current state.
-     * A move is considered legal if:
-     * - A disk can only be placed on a rod where it is greater than or equal to the top disk, or the rod is empty.
-     * - The 'from' position is not equal to the 'to' position.
-     * - If the 'to' position is at row row_size-1 (so at the bottom), it must be empty.
-     * - If the row is not equal to null and the 'from' position is not equal to the top position, it must follow the logic described above.
+     * Writes every legal move of the current state into an array without allocating any object.
      *
-     * @return A set of legal moves.
+     * @param moves  The array receiving the moves encoded by {@link PackedMove}.
+     * @param offset The index of the first move in the array.
+     * @return The number of legal moves.
+     * @see TowerPuzzleState#legalMoves(int[], int)
      */
-    @Override
-    public Set<TwoPhaseMove<Position>> getLegalMoves() {
-        Set<TwoPhaseMove<Position>> moves = new HashSet<>();
-        for (var fromTop : getTopDisks()) {
-            if (getDisk(fromTop).getColors() != Colors.EMPTY) {
-                for (var toTop : getTopDisks()) {
-                    if (toTop.row() == ROW_SIZE - 1 && fromTop != toTop && getDisk(toTop).getColors() == Colors.EMPTY) {
-                        var to = new Position(toTop.row(), toTop.col());
-                        moves.add(new TwoPhaseMove<>(fromTop, to));
-
-                    } else if (toTop.row() != 0 && fromTop != toTop) {
-                        var to = new Position(toTop.row() - 1, toTop.col());
-                        if (getDisk(fromTop).getValue() <= getDisk(toTop).getValue() && getDisk(to).getColors() == Colors.EMPTY) {
-                            moves.add(new TwoPhaseMove<>(fromTop, to));
-                        }
-
-                    }
-                }
-            }
-        }
-        return moves;
+    public int legalMoves(int[] moves, int offset) {
+        return state.legalMoves(moves, offset);
     }
 
     /**
-     * Checks if the given move is legal.
+     * Translates an encoded move into the cell positions of the board.
      *
-     * @param positionTwoPhaseMove The move to check.
-     * @return True if the move is legal according to the getLegalMoves and for the isLegalToMoveFrom method, otherwise false.
+     * @param move The move encoded by {@link PackedMove}.
+     * @return The move from the top disk of the source rod to the lowest empty cell of the target rod.
      */
+    public TwoPhaseMove<Position> toTwoPhaseMove(int move) {
+        return state.toTwoPhaseMove(move);
+    }
 
     @Override
-    public boolean isLegalMove(TwoPhaseMove<Position> positionTwoPhaseMove) {
-
-        return getLegalMoves().contains(positionTwoPhaseMove) && isLegalToMoveFrom(positionTwoPhaseMove.from());
+    public Set<TwoPhaseMove<Position>> getLegalMoves() {
+        return state.getLegalMoves();
+    }
 
+    @Override
+    public boolean isLegalMove(TwoPhaseMove<Position> positionTwoPhaseMove) {
+        return state.isLegalMove(positionTwoPhaseMove);
     }
 
     /**
-     * Makes a move if it is legal.
-     * This method makes the 'from' disk position empty and sets the 'to' position to the disk position,
-     * updating the corresponding properties.
+     * Makes a move if it is legal and prints the new board.
      *
      * @param positionTwoPhaseMove The move to make.
      */
     @Override
     public void makeMove(TwoPhaseMove<Position> positionTwoPhaseMove) {
         if (isLegalMove(positionTwoPhaseMove)) {
-            var disk = getDisk(positionTwoPhaseMove.from());
-            this.rods[positionTwoPhaseMove.from().row()][positionTwoPhaseMove.from().col()] = new Disk(Colors.EMPTY, positionTwoPhaseMove.from(), 0);
-            this.rods[positionTwoPhaseMove.to().row()][positionTwoPhaseMove.to().col()] = new Disk(disk.getColors(), positionTwoPhaseMove.to(), disk.getValue());
+            state.makeMove(positionTwoPhaseMove);
             System.out.println(this);
-            copy();
-
+        }
+    }
 
+    /**
+     * Makes an encoded move if it is legal and prints the new board.
+     *
+     * @param move The move encoded by {@link PackedMove}.
+     */
+    public void makeMove(int move) {
+        if (isLegalMove(move)) {
+            makeMove(toTwoPhaseMove(move));
         }
     }
 
+    /**
+     * Makes an encoded move in place without checking it, printing the board or updating the disk properties.
+     * <p>
+     * The properties keep showing the board from before the move, so a search has to {@link #undo(int)}
+     * every applied move before the model is shown again.
+     *
+     * @param move The move encoded by {@link PackedMove}, which must be legal.
+     * @see TowerPuzzleState#apply(int)
+     */
+    public void apply(int move) {
+        state.apply(move);
+    }
 
-    private Disk getDisk(Position position) {
-        return rods[position.row()][position.col()];
+    /**
+     * Takes back the move made last by {@link #apply(int)}.
+     *
+     * @param move The move encoded by {@link PackedMove}, which must be the one applied last.
+     * @see TowerPuzzleState#undo(int)
+     */
+    public void undo(int move) {
+        state.undo(move);
     }
 
     /**
      * Clones the TowerPuzzleModel.
      *
-     * @return A cloned copy of the TowerPuzzleModel.
+     * @return A model with its own properties showing a clone of the state.
      */
     @Override
     public TwoPhaseMoveState<Position> clone() {
-        TowerPuzzleModel copy;
-        try {
-            copy = (TowerPuzzleModel) super.clone();
-        } catch (CloneNotSupportedException e) {
-            throw new AssertionError();
-        }
-        Disk[][] nb = new Disk[ROW_SIZE][COL_SIZE];
-        for (int i = 0; i < ROW_SIZE; i++) {
-            for (int j = 0; j < COL_SIZE; j++) {
-                nb[i][j] = rods[i][j];
-            }
-        }
-        copy.rods = nb;
-
-        return copy;
+        return new TowerPuzzleModel(state.clone());
     }
 
     @Override
     public String toString() {
-        final StringBuilder sb = new StringBuilder("TowerPuzzleModel{");
-        sb.append("\n");
-        for (int i = 0; i < ROW_SIZE; i++) {
-            for (int j = 0; j < COL_SIZE; j++) {
-                sb.append(rods[i][j]).append("\t");
-            }
-            sb.append("\n");
-
-        }
-        return sb.toString();
+        return "TowerPuzzleModel" + state.toString().substring("TowerPuzzleState".length());
     }
 
     /**
@@ -272,7 +355,7 @@ public class TowerPuzzleModel implements TwoPhaseMoveState<Position> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         TowerPuzzleModel that = (TowerPuzzleModel) o;
-        return Arrays.deepEquals(this.rods, that.rods);
+        return state.equals(that.state);
     }
 
     /**
@@ -282,6 +365,6 @@ public class TowerPuzzleModel implements TwoPhaseMoveState<Position> {
      */
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(this.rods);
+        return state.hashCode();
     }
 }
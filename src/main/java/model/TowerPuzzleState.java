@@ -0,0 +1,614 @@
+package model;
+
+import puzzle.TwoPhaseMoveState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * The state of a Tower Puzzle board without any dependency on the user interface.
+ * Implements the {@link TwoPhaseMoveState} interface with {@link Position}.
+ * <p>
+ * The board is kept as one byte per cell holding the index of the disk in the cell, see
+ * {@link PackedBoard#disk(Colors, int)}, plus one, zero meaning an empty cell. Together with the number of
+ * disks on each rod this is all the state there is, so cloning copies two small primitive arrays.
+ * The {@link Disk} objects of the cells are shared by the boards of the dimensions, see {@link DiskTable}. The {@link PackedBoard} of the dimensions is
+ * only created when a packed state is asked for, so boards too large for a single {@code long} can still be
+ * played, just not solved by the searches of the {@code bfs} package.
+ * <p>
+ * A Zobrist hash of the board is updated by every move and carried along by {@link #clone()}, so
+ * {@link #hashCode()} and {@link #fingerprint()} take constant time.
+ * <p>
+ * Depth-first searches explore the state in place instead of cloning it: {@link #legalMoves(int[], int)}
+ * writes the moves of a node into a preallocated array, {@link #apply(int)} makes a move and {@link #undo(int)}
+ * takes it back on the way up, none of them allocating anything or notifying the listeners. The memory used
+ * by such a search is then proportional to its depth.
+ */
+public class TowerPuzzleState implements TwoPhaseMoveState<Position> {
+
+    private static final byte EMPTY = 0;
+
+    private final PuzzleConfig config;
+    private PackedBoard board;
+    private final int rowSize;
+    private final int colSize;
+    private final ZobristKeys keys;
+    private final DiskTable disks;
+    private byte[] cells;
+    private long hash;
+    private int[] heights;
+    private List<BoardChangeListener> listeners = new ArrayList<>();
+
+    /**
+     * Constructs the start position of the {@link PuzzleConfig#STANDARD} board.
+     */
+    public TowerPuzzleState() {
+        this(PuzzleConfig.STANDARD);
+    }
+
+    /**
+     * Constructs the start position of a board with the given dimensions.
+     * <p>
+     * Each colored rod holds one disk of every size, the largest at the bottom, and the colors
+     * rotate from level to level. The remaining rods are empty.
+     *
+     * @param config The dimensions of the board.
+     */
+    public TowerPuzzleState(PuzzleConfig config) {
+        this.config = config;
+        this.rowSize = config.rowSize();
+        this.colSize = config.rods();
+        this.keys = ZobristKeys.of(config);
+        this.disks = DiskTable.of(config);
+        this.cells = new byte[rowSize * colSize];
+        this.heights = new int[colSize];
+        for (int level = 0; level < config.disksPerColor(); level++) {
+            for (int j = 0; j < config.colors(); j++) {
+                var color = config.color((j + level + 1) % config.colors());
+                cells[index(rowSize - 1 - level, j)] = cell(disk(color, config.disksPerColor() - level));
+                heights[j]++;
+            }
+        }
+        this.hash = computeHash();
+    }
+
+    /**
+     * Constructs the state of the {@link PuzzleConfig#STANDARD} board from a packed state.
+     *
+     * @param packedState The state of the board encoded by {@link PackedBoard#STANDARD}.
+     */
+    public TowerPuzzleState(long packedState) {
+        this(PuzzleConfig.STANDARD, packedState);
+    }
+
+    /**
+     * Constructs the state of a board with the given dimensions from a packed state.
+     *
+     * @param config      The dimensions of the board.
+     * @param packedState The state of the board encoded by the {@link PackedBoard} of the dimensions.
+     * @throws IllegalArgumentException If the board does not fit into a {@code long}.
+     */
+    public TowerPuzzleState(PuzzleConfig config, long packedState) {
+        this.config = config;
+        this.board = boardOf(config);
+        this.rowSize = config.rowSize();
+        this.colSize = config.rods();
+        this.keys = ZobristKeys.of(config);
+        this.disks = DiskTable.of(config);
+        this.cells = new byte[rowSize * colSize];
+        this.heights = new int[colSize];
+        int[] stack = new int[rowSize];
+        for (int j = 0; j < colSize; j++) {
+            heights[j] = board.stack(packedState, j, stack);
+            for (int level = 0; level < heights[j]; level++) {
+                cells[index(rowSize - 1 - level, j)] = cell(stack[level]);
+            }
+        }
+        this.hash = computeHash();
+    }
+
+    /**
+     * Returns the dimensions of the board.
+     *
+     * @return The dimensions of the board.
+     */
+    public PuzzleConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Returns the encoding of the board, which is created on the first call.
+     *
+     * @return The {@link PackedBoard} of the dimensions of the board.
+     * @throws IllegalArgumentException If the board does not fit into a {@code long}, see
+     *                                  {@link PackedBoard#fits(PuzzleConfig)}.
+     */
+    public PackedBoard getBoard() {
+        var packed = board;
+        if (packed == null) {
+            packed = boardOf(config);
+            board = packed;
+        }
+        return packed;
+    }
+
+    /**
+     * Returns the current state of the board encoded by {@link #getBoard()}.
+     *
+     * @return The packed state of the board.
+     * @throws IllegalArgumentException If the board does not fit into a {@code long}.
+     */
+    public long toPackedState() {
+        var board = getBoard();
+        int[][] stacks = new int[colSize][rowSize];
+        for (int j = 0; j < colSize; j++) {
+            for (int level = 0; level < heights[j]; level++) {
+                stacks[j][level] = cells[index(rowSize - 1 - level, j)] - 1;
+            }
+        }
+        return board.pack(stacks, heights);
+    }
+
+    /**
+     * Returns the disk at a position.
+     *
+     * @param position The position of the cell.
+     * @return The disk in the cell, or an empty disk if the cell is empty.
+     */
+    public Disk getDisk(Position position) {
+        return getDisk(position.row(), position.col());
+    }
+
+    /**
+     * Returns the disk at a position.
+     *
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @return The disk in the cell, or an empty disk if the cell is empty.
+     */
+    public Disk getDisk(int row, int col) {
+        return disks.get(row, col, cells[index(row, col)] - 1);
+    }
+
+    /**
+     * Returns the disks of the board.
+     *
+     * @return A freshly allocated board in the row-major layout, the bottom row being the last one.
+     */
+    public Disk[][] getRods() {
+        Disk[][] rods = new Disk[rowSize][colSize];
+        for (int i = 0; i < rowSize; i++) {
+            for (int j = 0; j < colSize; j++) {
+                rods[i][j] = getDisk(i, j);
+            }
+        }
+        return rods;
+    }
+
+    /**
+     * Replaces the disks of the board and notifies the listeners once with every position.
+     *
+     * @param rods The new board in the row-major layout, the bottom row being the last one. Missing
+     *             cells are treated as empty.
+     * @throws IllegalArgumentException If a disk has a color that is not used on the board.
+     */
+    public void setRods(Disk[][] rods) {
+        byte[] newCells = new byte[rowSize * colSize];
+        for (int i = 0; i < rowSize; i++) {
+            for (int j = 0; j < colSize; j++) {
+                var disk = rods[i][j];
+                if (disk == null || disk.getColors() == Colors.EMPTY) {
+                    continue;
+                }
+                if (config.colorIndex(disk.getColors()) < 0) {
+                    throw new IllegalArgumentException("Color " + disk.getColors() + " is not used on the board");
+                }
+                newCells[index(i, j)] = cell(disk(disk.getColors(), disk.getValue()));
+            }
+        }
+        cells = newCells;
+        hash = computeHash();
+        for (int j = 0; j < colSize; j++) {
+            heights[j] = 0;
+            while (heights[j] < rowSize && cells[index(rowSize - 1 - heights[j], j)] != EMPTY) {
+                heights[j]++;
+            }
+        }
+        List<Position> positions = new ArrayList<>(rowSize * colSize);
+        for (int i = 0; i < rowSize; i++) {
+            for (int j = 0; j < colSize; j++) {
+                positions.add(Position.of(i, j));
+            }
+        }
+        fireBoardChanged(new BoardChange(positions));
+    }
+
+    /**
+     * Registers a listener notified once after every change of the board.
+     *
+     * @param listener The listener to add.
+     */
+    public void addBoardChangeListener(BoardChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered by {@link #addBoardChangeListener(BoardChangeListener)}.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeBoardChangeListener(BoardChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Checks if it is legal to move a disk from the specified position.
+     *
+     * @param position The position to check.
+     * @return True if the disk at the specified position is not empty, otherwise false.
+     */
+    @Override
+    public boolean isLegalToMoveFrom(Position position) {
+        return cells[index(position.row(), position.col())] != EMPTY;
+    }
+
+    /**
+     * Checks if the puzzle is solved.
+     *
+     * @return True if the disks of the {@code i}-th color of {@link PuzzleConfig#color(int)} fill the
+     * lowest levels of the {@code i}-th rod, so with the standard board all red disks are on the first rod
+     * and all blue disks are on the second rod, otherwise false.
+     */
+    @Override
+    public boolean isSolved() {
+        for (int j = 0; j < config.colors(); j++) {
+            if (heights[j] < config.disksPerColor()) {
+                return false;
+            }
+            for (int level = 0; level < config.disksPerColor(); level++) {
+                int cell = cells[index(rowSize - 1 - level, j)];
+                if (color(cell - 1) != config.color(j)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of disks on a rod.
+     *
+     * @param rod The index of the rod.
+     * @return The number of disks on the rod.
+     */
+    public int getHeight(int rod) {
+        return heights[rod];
+    }
+
+    /**
+     * Returns the position of the top disk of a rod.
+     *
+     * @param rod The index of the rod.
+     * @return The position of the top disk, or the bottom position of the rod if it is empty.
+     */
+    public Position getTopPosition(int rod) {
+        return Position.of(rowSize - Math.max(heights[rod], 1), rod);
+    }
+
+    /**
+     * Returns the positions of the top disks on each rod.
+     * For an empty rod its bottom (empty) position is added instead.
+     *
+     * @return A set containing the positions of the top disks on each rod.
+     */
+    public Set<Position> getTopDisks() {
+        Set<Position> positions = new HashSet<>();
+        for (int i = 0; i < colSize; i++) {
+            positions.add(getTopPosition(i));
+        }
+        return positions;
+    }
+
+    /**
+     * Checks if a position holds the top disk of its rod.
+     *
+     * @param position The position to check.
+     * @return True if the rod is not empty and the position is its topmost occupied cell, otherwise false.
+     */
+    public boolean isTopDisk(Position position) {
+        return heights[position.col()] > 0 && position.row() == rowSize - heights[position.col()];
+    }
+
+    /**
+     * Checks if a position is the cell a disk moved onto its rod would occupy.
+     *
+     * @param position The position to check.
+     * @return True if the position is the lowest empty cell of its rod, otherwise false.
+     */
+    public boolean isLegalToMoveTo(Position position) {
+        return position.row() == rowSize - 1 - heights[position.col()];
+    }
+
+    /**
+     * Checks if the top disk of one rod may be placed onto another one in constant time.
+     *
+     * @param from The index of the rod the disk is taken from.
+     * @param to   The index of the rod the disk is placed onto.
+     * @return True if the source rod is not empty, the rods differ, the target rod has a free cell
+     * and it is either empty or its top disk is not smaller than the moved one, otherwise false.
+     */
+    public boolean isLegalMove(int from, int to) {
+        if (from == to || heights[from] == 0 || heights[to] == rowSize) {
+            return false;
+        }
+        return heights[to] == 0 || size(topDisk(from)) <= size(topDisk(to));
+    }
+
+    /**
+     * Checks if an encoded move is legal.
+     *
+     * @param move The move encoded by {@link PackedMove}.
+     * @return True if the move is legal according to {@link #isLegalMove(int, int)}, otherwise false.
+     */
+    public boolean isLegalMove(int move) {
+        return isLegalMove(PackedMove.from(move), PackedMove.to(move));
+    }
+
+    /**
+     * Passes every legal move of the current state to a callback without allocating any object.
+     *
+     * @param action The callback receiving the moves encoded by {@link PackedMove}.
+     */
+    public void forEachLegalMove(IntConsumer action) {
+        for (int from = 0; from < colSize; from++) {
+            if (heights[from] == 0) {
+                continue;
+            }
+            for (int to = 0; to < colSize; to++) {
+                if (isLegalMove(from, to)) {
+                    action.accept(PackedMove.of(from, to));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes every legal move of the current state into an array without allocating any object.
+     *
+     * @param moves  The array receiving the moves encoded by {@link PackedMove}, which needs room for
+     *               {@link PackedBoard#maxSuccessors()} moves from the offset on.
+     * @param offset The index of the first move in the array.
+     * @return The number of legal moves.
+     */
+    public int legalMoves(int[] moves, int offset) {
+        int count = 0;
+        for (int from = 0; from < colSize; from++) {
+            if (heights[from] == 0) {
+                continue;
+            }
+            for (int to = 0; to < colSize; to++) {
+                if (isLegalMove(from, to)) {
+                    moves[offset + count++] = PackedMove.of(from, to);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Translates an encoded move into the cell positions of the board.
+     *
+     * @param move The move encoded by {@link PackedMove}.
+     * @return The move from the top disk of the source rod to the lowest empty cell of the target rod.
+     */
+    public TwoPhaseMove<Position> toTwoPhaseMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        return new TwoPhaseMove<>(Position.of(rowSize - heights[from], from),
+                Position.of(rowSize - 1 - heights[to], to));
+    }
+
+    /**
+     * Returns a set of legal moves that can be made from the current state.
+     * A move is considered legal if it takes the top disk of a rod and places it onto the lowest empty
+     * cell of another rod that is either empty or whose top disk is greater than or equal to it.
+     *
+     * @return A set of legal moves.
+     */
+    @Override
+    public Set<TwoPhaseMove<Position>> getLegalMoves() {
+        Set<TwoPhaseMove<Position>> moves = new HashSet<>();
+        forEachLegalMove(move -> moves.add(toTwoPhaseMove(move)));
+        return moves;
+    }
+
+    /**
+     * Checks if the given move is legal in constant time.
+     *
+     * @param positionTwoPhaseMove The move to check.
+     * @return True if the move takes the top disk of a rod to the lowest empty cell of another rod
+     * and {@link #isLegalMove(int, int)} allows moving between the two rods, otherwise false.
+     */
+    @Override
+    public boolean isLegalMove(TwoPhaseMove<Position> positionTwoPhaseMove) {
+        var from = positionTwoPhaseMove.from();
+        var to = positionTwoPhaseMove.to();
+        return isTopDisk(from) && isLegalToMoveTo(to) && isLegalMove(from.col(), to.col());
+    }
+
+    /**
+     * Makes a move if it is legal and notifies the listeners once with both positions.
+     *
+     * @param positionTwoPhaseMove The move to make.
+     */
+    @Override
+    public void makeMove(TwoPhaseMove<Position> positionTwoPhaseMove) {
+        if (isLegalMove(positionTwoPhaseMove)) {
+            var from = positionTwoPhaseMove.from();
+            var to = positionTwoPhaseMove.to();
+            moveTopDisk(from.col(), to.col());
+            fireBoardChanged(new BoardChange(List.of(from, to)));
+        }
+    }
+
+    /**
+     * Makes an encoded move if it is legal and notifies the listeners once with both positions.
+     *
+     * @param move The move encoded by {@link PackedMove}.
+     */
+    public void makeMove(int move) {
+        if (isLegalMove(move)) {
+            makeMove(toTwoPhaseMove(move));
+        }
+    }
+
+    /**
+     * Makes an encoded move in place without checking its legality or notifying the listeners.
+     * <p>
+     * Together with {@link #undo(int)} this lets a depth-first search walk the board without cloning it.
+     * The fingerprint is updated as by any other move.
+     *
+     * @param move The move encoded by {@link PackedMove}, which must be legal.
+     */
+    public void apply(int move) {
+        moveTopDisk(PackedMove.from(move), PackedMove.to(move));
+    }
+
+    /**
+     * Takes back the move made last by {@link #apply(int)} without notifying the listeners.
+     *
+     * @param move The move encoded by {@link PackedMove}, which must be the one applied last.
+     */
+    public void undo(int move) {
+        moveTopDisk(PackedMove.to(move), PackedMove.from(move));
+    }
+
+    /**
+     * Clones the state. Only the primitive board is copied, and the clone has no listeners.
+     *
+     * @return A cloned copy of the state.
+     */
+    @Override
+    public TowerPuzzleState clone() {
+        TowerPuzzleState copy;
+        try {
+            copy = (TowerPuzzleState) super.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError();
+        }
+        copy.cells = cells.clone();
+        copy.heights = heights.clone();
+        copy.listeners = new ArrayList<>();
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("TowerPuzzleState{");
+        sb.append("\n");
+        for (int i = 0; i < rowSize; i++) {
+            for (int j = 0; j < colSize; j++) {
+                sb.append(getDisk(i, j)).append("\t");
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Checks if this state is equal to another object.
+     *
+     * @param o The object to compare with.
+     * @return True if the other object is a state of a board with the same dimensions and the same disks
+     * in every cell, otherwise false.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TowerPuzzleState that = (TowerPuzzleState) o;
+        return hash == that.hash && config.equals(that.config) && Arrays.equals(cells, that.cells);
+    }
+
+    /**
+     * Returns the hash code value for this state.
+     *
+     * @return The folded {@link #fingerprint()} of this state.
+     */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    /**
+     * Returns the Zobrist hash of the board, maintained incrementally by every move.
+     * <p>
+     * Equal states of boards with equal dimensions always have the same fingerprint, so it can be
+     * used as the key of a transposition table. Different states collide with a probability of about
+     * {@code 2^-64}.
+     *
+     * @return The 64-bit fingerprint of the board.
+     */
+    public long fingerprint() {
+        return hash;
+    }
+
+    private long computeHash() {
+        long result = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != EMPTY) {
+                result ^= keys.key(i, cells[i] - 1);
+            }
+        }
+        return result;
+    }
+
+    private void moveTopDisk(int from, int to) {
+        int source = index(rowSize - heights[from], from);
+        int target = index(rowSize - 1 - heights[to], to);
+        int disk = cells[source] - 1;
+        hash ^= keys.key(source, disk) ^ keys.key(target, disk);
+        heights[from]--;
+        cells[target] = cells[source];
+        cells[source] = EMPTY;
+        heights[to]++;
+    }
+
+    private int topDisk(int rod) {
+        return cells[index(rowSize - heights[rod], rod)] - 1;
+    }
+
+    private void fireBoardChanged(BoardChange change) {
+        for (var listener : List.copyOf(listeners)) {
+            listener.boardChanged(change);
+        }
+    }
+
+    private int disk(Colors color, int size) {
+        return config.colorIndex(color) * config.disksPerColor() + size - 1;
+    }
+
+    private Colors color(int disk) {
+        return config.color(disk / config.disksPerColor());
+    }
+
+    private int size(int disk) {
+        return disk % config.disksPerColor() + 1;
+    }
+
+    private int index(int row, int col) {
+        return row * colSize + col;
+    }
+
+    private static byte cell(int disk) {
+        return (byte) (disk + 1);
+    }
+
+    private static PackedBoard boardOf(PuzzleConfig config) {
+        return config.equals(PuzzleConfig.STANDARD) ? PackedBoard.STANDARD : new PackedBoard(config);
+    }
+}
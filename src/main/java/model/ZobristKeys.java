@@ -0,0 +1,51 @@
+package model;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random 64-bit keys of a Zobrist hash, one for every disk in every cell of a board.
+ * <p>
+ * The hash of a board is the exclusive or of the keys of its occupied cells, so moving a disk updates it
+ * with two operations. The keys are generated from a fixed seed, so boards with equal dimensions always
+ * hash equally, and they are created once per {@link PuzzleConfig}.
+ */
+final class ZobristKeys {
+
+    private static final long SEED = 0x5DEECE66DL;
+    private static final Map<PuzzleConfig, ZobristKeys> KEYS = new ConcurrentHashMap<>();
+
+    private final int diskCount;
+    private final long[] keys;
+
+    private ZobristKeys(PuzzleConfig config) {
+        this.diskCount = config.diskCount();
+        this.keys = new long[config.rowSize() * config.rods() * diskCount];
+        var random = new SplittableRandom(SEED);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Returns the keys of a board.
+     *
+     * @param config The dimensions of the board.
+     * @return The shared keys of the dimensions.
+     */
+    static ZobristKeys of(PuzzleConfig config) {
+        return KEYS.computeIfAbsent(config, ZobristKeys::new);
+    }
+
+    /**
+     * Returns the key of a disk in a cell.
+     *
+     * @param cell The row-major index of the cell.
+     * @param disk The index of the disk, see {@link PackedBoard#disk(Colors, int)}.
+     * @return The key.
+     */
+    long key(int cell, int disk) {
+        return keys[cell * diskCount + disk];
+    }
+}
@@ -0,0 +1,108 @@
+package simulation;
+
+import java.util.Arrays;
+
+/**
+ * Counts non-negative values in buckets of width one. Values above the largest bucket are counted in it.
+ * <p>
+ * A histogram is not thread-safe. Histograms filled by separate threads are combined with
+ * {@link #merge(Histogram)}.
+ */
+public final class Histogram {
+
+    private final long[] counts;
+    private long count;
+    private long sum;
+
+    /**
+     * Constructs an empty histogram.
+     *
+     * @param max The value of the largest bucket.
+     */
+    public Histogram(int max) {
+        this.counts = new long[max + 1];
+    }
+
+    /**
+     * Counts a value.
+     *
+     * @param value The value, which must not be negative.
+     */
+    public void add(int value) {
+        counts[Math.min(value, counts.length - 1)]++;
+        count++;
+        sum += value;
+    }
+
+    /**
+     * Adds the counts of another histogram with the same buckets to this one.
+     *
+     * @param other The other histogram.
+     * @throws IllegalArgumentException If the buckets of the histograms differ.
+     */
+    public void merge(Histogram other) {
+        if (other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Histograms have different buckets");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+    }
+
+    /**
+     * Returns the number of counted values.
+     *
+     * @return The number of values.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the number of times a value was counted.
+     *
+     * @param value The value.
+     * @return The count of the bucket of the value.
+     */
+    public long getCount(int value) {
+        return counts[Math.min(value, counts.length - 1)];
+    }
+
+    /**
+     * Returns the mean of the counted values.
+     *
+     * @return The mean, or {@code 0} if no value was counted.
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * Returns the smallest value that at least a given share of the counted values does not exceed.
+     *
+     * @param quantile The share between {@code 0} and {@code 1}.
+     * @return The value, or {@code -1} if no value was counted.
+     */
+    public int getPercentile(double quantile) {
+        long target = (long) Math.ceil(quantile * count);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(target, 1)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the counts of the buckets.
+     *
+     * @return A copy of the counts, the last bucket including the larger values.
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(counts, counts.length);
+    }
+}
@@ -0,0 +1,60 @@
+package simulation;
+
+import bfs.Heuristic;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chooses the next state of a simulated game.
+ * <p>
+ * A policy is used by a single thread only, so it may keep state of its own. The candidates never contain the
+ * state the game came from, as taking a move back is left to the {@link Simulation} when there is nothing
+ * else to do.
+ */
+@FunctionalInterface
+public interface Policy {
+
+    /**
+     * Chooses the next state.
+     *
+     * @param candidates The packed states reachable by a single legal move, except the previous state.
+     * @param count      The number of candidates, at least one.
+     * @param random     The random generator of the game.
+     * @return The index of the chosen candidate.
+     */
+    int choose(long[] candidates, int count, SplittableRandom random);
+
+    /**
+     * Returns a policy choosing every candidate with the same probability.
+     *
+     * @return The random policy.
+     */
+    static Policy random() {
+        return (candidates, count, random) -> random.nextInt(count);
+    }
+
+    /**
+     * Returns a policy choosing the candidate with the smallest estimate, breaking ties at random.
+     *
+     * @param heuristic The estimate of the distance of a state from the goal.
+     * @return The greedy policy.
+     */
+    static Policy greedy(Heuristic heuristic) {
+        return (candidates, count, random) -> {
+            int best = -1;
+            int bestEstimate = Integer.MAX_VALUE;
+            int ties = 0;
+            for (int i = 0; i < count; i++) {
+                int estimate = heuristic.estimate(candidates[i]);
+                if (estimate < bestEstimate) {
+                    best = i;
+                    bestEstimate = estimate;
+                    ties = 1;
+                } else if (estimate == bestEstimate && random.nextInt(++ties) == 0) {
+                    best = i;
+                }
+            }
+            return best;
+        };
+    }
+}
@@ -0,0 +1,166 @@
+package simulation;
+
+import bfs.MisplacedDisks;
+import model.PackedBoard;
+import model.TowerPuzzleState;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Plays many independent games with a {@link Policy} on a {@link ForkJoinPool} and aggregates the results
+ * into {@link SimulationStats}.
+ * <p>
+ * The games are played on states encoded by {@link PackedBoard}, so a move allocates nothing. The games are
+ * split into chunks of at most {@value #CHUNK_SIZE}, and each chunk is played by a task with its own state,
+ * policy, random generator and statistics, which are merged when the tasks join. A chunk seeds its generator
+ * from the seed of the simulation and its first game, and the split does not depend on the number of
+ * threads, so a simulation gives the same results on any pool.
+ * <p>
+ * A game ends when it is solved or after a given number of moves. Every move goes to a state chosen by the
+ * policy among the successors other than the previous state. If the previous state is the only successor, the
+ * game has hit a dead end and takes the move back.
+ */
+public class Simulation {
+
+    private static final int CHUNK_SIZE = 256;
+    private static final long NONE = 0L;
+
+    private final PackedBoard board;
+    private final ForkJoinPool pool;
+    private final long start;
+
+    /**
+     * Constructs a new {@code Simulation} of the standard board running on the common pool.
+     */
+    public Simulation() {
+        this(PackedBoard.STANDARD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a new {@code Simulation} running on the given pool.
+     *
+     * @param board The encoding of the states, whose start position every game starts from.
+     * @param pool  The pool playing the games.
+     */
+    public Simulation(PackedBoard board, ForkJoinPool pool) {
+        this.board = board;
+        this.pool = pool;
+        this.start = new TowerPuzzleState(board.config()).toPackedState();
+    }
+
+    /**
+     * Plays games and aggregates their results.
+     *
+     * @param policies Creates the policy of every task.
+     * @param games    The number of games.
+     * @param maxMoves The number of moves after which a game is abandoned.
+     * @param seed     The seed of the random generators.
+     * @return The statistics of the games.
+     */
+    public SimulationStats run(Supplier<? extends Policy> policies, long games, int maxMoves, long seed) {
+        return pool.invoke(new Games(policies, 0, games, maxMoves, seed));
+    }
+
+    private static long mix(long seed, long game) {
+        long z = seed ^ game * 0x9E3779B97F4A7C15L;
+        z = (z ^ z >>> 33) * 0xFF51AFD7ED558CCDL;
+        z = (z ^ z >>> 33) * 0xC4CEB9FE1A85EC53L;
+        return z ^ z >>> 33;
+    }
+
+    /**
+     * Plays a chunk of the games, splitting it further while it is larger than {@link #CHUNK_SIZE}.
+     */
+    private final class Games extends RecursiveTask<SimulationStats> {
+        private final Supplier<? extends Policy> policies;
+        private final long first;
+        private final long end;
+        private final int maxMoves;
+        private final long seed;
+
+        private Games(Supplier<? extends Policy> policies, long first, long end, int maxMoves, long seed) {
+            this.policies = policies;
+            this.first = first;
+            this.end = end;
+            this.maxMoves = maxMoves;
+            this.seed = seed;
+        }
+
+        @Override
+        protected SimulationStats compute() {
+            if (end - first > CHUNK_SIZE) {
+                long middle = (first + end) >>> 1;
+                var left = new Games(policies, first, middle, maxMoves, seed);
+                left.fork();
+                var stats = new Games(policies, middle, end, maxMoves, seed).compute();
+                stats.merge(left.join());
+                return stats;
+            }
+            var stats = new SimulationStats(maxMoves);
+            var policy = policies.get();
+            var random = new SplittableRandom(mix(seed, first));
+            long[] candidates = new long[board.maxSuccessors()];
+            for (long game = first; game < end; game++) {
+                play(policy, random, candidates, stats);
+            }
+            return stats;
+        }
+
+        private void play(Policy policy, SplittableRandom random, long[] candidates, SimulationStats stats) {
+            long state = start;
+            long previous = NONE;
+            int moves = 0;
+            int deadEnds = 0;
+            boolean solved = board.isSolved(state);
+            while (!solved && moves < maxMoves) {
+                int successorCount = board.successors(state, candidates);
+                int count = 0;
+                for (int i = 0; i < successorCount; i++) {
+                    if (candidates[i] != previous) {
+                        candidates[count++] = candidates[i];
+                    }
+                }
+                long next;
+                if (count == 0) {
+                    deadEnds++;
+                    next = previous;
+                } else {
+                    next = candidates[policy.choose(candidates, count, random)];
+                }
+                previous = state;
+                state = next;
+                moves++;
+                solved = board.isSolved(state);
+            }
+            stats.addGame(solved, moves, deadEnds);
+        }
+    }
+
+    /**
+     * Simulates games and prints their statistics.
+     *
+     * @param args The policy, {@code random} or {@code greedy}, the number of games, the number of moves after
+     *             which a game is abandoned and the seed.
+     */
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "random";
+        long games = args.length > 1 ? Long.parseLong(args[1]) : 100_000;
+        int maxMoves = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        var board = PackedBoard.STANDARD;
+        Supplier<Policy> policies = switch (mode) {
+            case "random" -> Policy::random;
+            case "greedy" -> () -> Policy.greedy(new MisplacedDisks(board));
+            default -> throw new IllegalArgumentException("Unknown policy: " + mode);
+        };
+        long startNanos = System.nanoTime();
+        var stats = new Simulation(board, ForkJoinPool.commonPool()).run(policies, games, maxMoves, seed);
+        long elapsedNanos = System.nanoTime() - startNanos;
+        System.out.println(stats);
+        System.out.printf("%d ms, %.1f million moves per second%n", elapsedNanos / 1_000_000,
+                stats.getMoveCount() * 1e3 / elapsedNanos);
+    }
+}
@@ -0,0 +1,142 @@
+package simulation;
+
+import java.util.Locale;
+
+/**
+ * The aggregated results of simulated games.
+ * <p>
+ * Every game adds to the counters and histograms, so the statistics take the same memory however many games
+ * are simulated. Statistics collected by separate threads are combined with {@link #merge(SimulationStats)}.
+ */
+public final class SimulationStats {
+
+    private final Histogram solvedMoves;
+    private final Histogram deadEnds;
+    private long games;
+    private long solved;
+    private long moves;
+    private long deadEndCount;
+
+    /**
+     * Constructs empty statistics.
+     *
+     * @param maxMoves The number of moves after which a game is abandoned.
+     */
+    public SimulationStats(int maxMoves) {
+        this.solvedMoves = new Histogram(maxMoves);
+        this.deadEnds = new Histogram(maxMoves);
+    }
+
+    /**
+     * Records a game.
+     *
+     * @param isSolved Whether the game was solved.
+     * @param moves    The number of moves made.
+     * @param deadEnds The number of times the only legal moves took back the previous move.
+     */
+    void addGame(boolean isSolved, int moves, int deadEnds) {
+        games++;
+        this.moves += moves;
+        deadEndCount += deadEnds;
+        this.deadEnds.add(deadEnds);
+        if (isSolved) {
+            solved++;
+            solvedMoves.add(moves);
+        }
+    }
+
+    /**
+     * Adds the statistics of other games to these.
+     *
+     * @param other The statistics of games with the same move limit.
+     */
+    public void merge(SimulationStats other) {
+        games += other.games;
+        solved += other.solved;
+        moves += other.moves;
+        deadEndCount += other.deadEndCount;
+        solvedMoves.merge(other.solvedMoves);
+        deadEnds.merge(other.deadEnds);
+    }
+
+    /**
+     * Returns the number of games.
+     *
+     * @return The number of simulated games.
+     */
+    public long getGameCount() {
+        return games;
+    }
+
+    /**
+     * Returns the number of solved games.
+     *
+     * @return The number of games solved before the move limit.
+     */
+    public long getSolvedCount() {
+        return solved;
+    }
+
+    /**
+     * Returns the share of the games that were solved.
+     *
+     * @return The solve rate between {@code 0} and {@code 1}.
+     */
+    public double getSolveRate() {
+        return games == 0 ? 0 : (double) solved / games;
+    }
+
+    /**
+     * Returns the number of moves of all the games.
+     *
+     * @return The number of simulated moves.
+     */
+    public long getMoveCount() {
+        return moves;
+    }
+
+    /**
+     * Returns the number of dead ends of all the games.
+     *
+     * @return The number of times the only legal moves took back the previous move.
+     */
+    public long getDeadEndCount() {
+        return deadEndCount;
+    }
+
+    /**
+     * Returns the share of the games that hit a dead end.
+     *
+     * @return The share of the games with at least one dead end between {@code 0} and {@code 1}.
+     */
+    public double getDeadEndRate() {
+        return games == 0 ? 0 : (double) (games - deadEnds.getCount(0)) / games;
+    }
+
+    /**
+     * Returns the distribution of the number of moves of the solved games.
+     *
+     * @return The histogram of the move counts.
+     */
+    public Histogram getSolvedMoves() {
+        return solvedMoves;
+    }
+
+    /**
+     * Returns the distribution of the number of dead ends per game.
+     *
+     * @return The histogram of the dead ends.
+     */
+    public Histogram getDeadEnds() {
+        return deadEnds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%d games, %d moves, %.2f%% solved, moves of solved games: mean %.1f, median %d, p90 %d, "
+                        + "%.2f%% hit a dead end, %d dead ends",
+                games, moves, getSolveRate() * 100, solvedMoves.getMean(), solvedMoves.getPercentile(0.5),
+                solvedMoves.getPercentile(0.9), getDeadEndRate() * 100, deadEndCount);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Headless simulation of many independent games played by a policy.
+ */
+package simulation;
@@ -0,0 +1,103 @@
+import json.GameResults;
+import json.Leaderboard;
+import json.ResultLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LeaderboardTest {
+
+    private Path directory;
+    private Path file;
+    private ResultLog log;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("leaderboard");
+        file = directory.resolve("leaderboard.bin");
+        log = ResultLog.open(directory.resolve("results.jsonl"), directory.resolve("results.json"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void testRanksCompletions() throws IOException {
+        log.append(new GameResults("Anna", 80, "true"));
+        log.append(new GameResults("Bela", 10, "false"));
+        log.append(new GameResults("Bela", 67, "true"));
+        log.append(new GameResults("Anna", 67, "true"));
+        log.append(new GameResults("Cecil", 300, "true"));
+        var leaderboard = Leaderboard.open(file, log);
+        assertEquals(List.of(new Leaderboard.Entry("Bela", 67, 2), new Leaderboard.Entry("Anna", 67, 3)),
+                leaderboard.top(2));
+        assertEquals(List.of(new Leaderboard.Entry("Anna", 67, 3), new Leaderboard.Entry("Anna", 80, 0)),
+                leaderboard.top("Anna", 5));
+        assertEquals(OptionalInt.of(1), leaderboard.rank("Anna"));
+        assertEquals(OptionalInt.of(1), leaderboard.rank("Bela"));
+        assertEquals(OptionalInt.of(3), leaderboard.rank("Cecil"));
+        assertEquals(OptionalInt.empty(), leaderboard.rank("Dora"));
+        assertEquals(3, leaderboard.getPlayerCount());
+    }
+
+    @Test
+    void testUpdatesFromSnapshot() throws IOException {
+        log.append(new GameResults("Anna", 90, "true"));
+        Leaderboard.open(file, log);
+        assertTrue(Files.exists(file));
+        log.append(new GameResults("Bela", 70, "true"));
+        var leaderboard = Leaderboard.open(file, log);
+        assertEquals(OptionalInt.of(2), leaderboard.rank("Anna"));
+        log.append(new GameResults("Anna", 68, "true"));
+        leaderboard.update();
+        assertEquals(OptionalInt.of(1), leaderboard.rank("Anna"));
+        assertEquals(OptionalInt.of(2), Leaderboard.open(file, log).rank("Bela"));
+    }
+
+    @Test
+    void testWritesSnapshotPeriodically() throws IOException {
+        log.append(new GameResults("Anna", 90, "true"));
+        var leaderboard = Leaderboard.open(file, log);
+        byte[] snapshot = Files.readAllBytes(file);
+        log.append(new GameResults("Bela", 70, "true"));
+        leaderboard.update();
+        assertArrayEquals(snapshot, Files.readAllBytes(file));
+        assertEquals(OptionalInt.of(1), Leaderboard.open(file, log).rank("Bela"));
+        leaderboard.save();
+        assertFalse(Arrays.equals(snapshot, Files.readAllBytes(file)));
+        snapshot = Files.readAllBytes(file);
+        for (int i = 0; i < Leaderboard.SNAPSHOT_INTERVAL; i++) {
+            log.append(new GameResults("Cecil", 100 + i, "true"));
+            leaderboard.update();
+        }
+        assertFalse(Arrays.equals(snapshot, Files.readAllBytes(file)));
+        assertEquals(3, Leaderboard.open(file, log).getPlayerCount());
+    }
+
+    @Test
+    void testRebuildsCorruptedSnapshot() throws IOException {
+        log.append(new GameResults("Anna", 67, "true"));
+        Leaderboard.open(file, log);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertEquals(List.of(new Leaderboard.Entry("Anna", 67, 0)), Leaderboard.open(file, log).top(10));
+    }
+}
@@ -0,0 +1,115 @@
+import model.Colors;
+import model.Disk;
+import model.PackedBoard;
+import model.Position;
+import model.PuzzleConfig;
+import model.TowerPuzzleModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import puzzle.TwoPhaseMoveState;
+
+import static model.TowerPuzzleModel.ROW_SIZE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PackedBoardTest {
+
+    private final PackedBoard board = PackedBoard.STANDARD;
+    private TowerPuzzleModel model;
+
+    @BeforeEach
+    void setUp() {
+        model = new TowerPuzzleModel();
+    }
+
+    @Test
+    void testRoundTrip() {
+        long state = model.toPackedState();
+        assertEquals(model, new TowerPuzzleModel(state));
+        assertEquals(state, new TowerPuzzleModel(state).toPackedState());
+    }
+
+    @Test
+    void testInitialState() {
+        long state = model.toPackedState();
+        int[] stack = new int[ROW_SIZE];
+        assertEquals(4, board.stack(state, 0, stack));
+        assertEquals(board.disk(Colors.BLUE, 4), stack[0]);
+        assertEquals(4, board.height(state, 1));
+        assertEquals(0, board.height(state, 2));
+        assertEquals(board.disk(Colors.RED, 1), board.top(state, 0));
+        assertEquals(board.disk(Colors.BLUE, 1), board.top(state, 1));
+        assertEquals(PackedBoard.NO_DISK, board.top(state, 2));
+    }
+
+    @Test
+    void testMove() {
+        long state = model.toPackedState();
+        assertTrue(board.isLegalMove(state, 0, 2));
+        assertTrue(board.isLegalMove(state, 0, 1));
+        assertFalse(board.isLegalMove(state, 2, 0));
+        assertFalse(board.isLegalMove(state, 1, 1));
+        assertEquals(4, board.successors(state, new long[board.maxSuccessors()]));
+
+        model.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(4, 0), new Position(ROW_SIZE - 1, 2)));
+        assertEquals(model.toPackedState(), board.move(state, 0, 2));
+
+        model.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(4, 1), new Position(ROW_SIZE - 2, 2)));
+        assertEquals(model.toPackedState(), board.move(board.move(state, 0, 2), 1, 2));
+    }
+
+    @Test
+    void testIsSolved() {
+        assertFalse(board.isSolved(model.toPackedState()));
+        Disk[][] rods = new Disk[ROW_SIZE][3];
+        for (int i = 0; i < ROW_SIZE; i++) {
+            rods[i][2] = new Disk(Colors.EMPTY, new Position(i, 2), 0);
+            if (i < 4) {
+                rods[i][0] = new Disk(Colors.EMPTY, new Position(i, 0), 0);
+                rods[i][1] = new Disk(Colors.EMPTY, new Position(i, 1), 0);
+            } else {
+                rods[i][0] = new Disk(Colors.RED, new Position(i, 0), i - 3);
+                rods[i][1] = new Disk(Colors.BLUE, new Position(i, 1), i - 3);
+            }
+        }
+        assertTrue(board.isSolved(board.encode(rods)));
+    }
+
+    @Test
+    void testRotate() {
+        long start = model.toPackedState();
+        assertEquals(2, board.symmetries());
+        assertEquals(start, board.rotate(start, 1));
+        assertEquals(board.solvedStates()[0], board.rotate(board.solvedStates()[0], 1));
+
+        long state = board.move(start, 0, 2);
+        long rotated = board.rotate(state, 1);
+        assertEquals(board.move(start, 1, 2), rotated);
+        assertEquals(state, board.rotate(rotated, 1));
+        assertEquals(board.canonical(state), board.canonical(rotated));
+        assertEquals(board.canonical(state), board.rotate(state, board.canonicalRotation(state)));
+        assertEquals(1, board.rotateRod(0, 1));
+        assertEquals(2, board.rotateRod(2, 1));
+    }
+
+    @Test
+    void testEncodeRejectsFloatingDisk() {
+        Disk[][] rods = board.decode(model.toPackedState());
+        rods[ROW_SIZE - 1][0] = new Disk(Colors.EMPTY, new Position(ROW_SIZE - 1, 0), 0);
+        assertThrows(IllegalArgumentException.class, () -> board.encode(rods));
+    }
+
+    @Test
+    void testLargerBoard() {
+        var config = new PuzzleConfig(5, 4, 3);
+        var larger = new TowerPuzzleModel(config);
+        var packed = larger.getBoard();
+        long state = larger.toPackedState();
+        assertEquals(larger, new TowerPuzzleModel(config, state));
+        assertEquals(3, packed.height(state, 3));
+        assertEquals(0, packed.height(state, 4));
+        assertEquals(packed.disk(Colors.YELLOW, 1), packed.top(state, 0));
+        assertEquals(4 * 4, packed.successors(state, new long[packed.maxSuccessors()]));
+        assertFalse(larger.isSolved());
+        assertTrue(new TowerPuzzleModel(config, packed.solvedStates()[0]).isSolved());
+    }
+}
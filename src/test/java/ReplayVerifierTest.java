@@ -0,0 +1,70 @@
+import bfs.BidirectionalSearch;
+import json.GameResults;
+import json.ReplayVerifier;
+import model.MoveLog;
+import model.PackedMove;
+import model.TowerPuzzleState;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReplayVerifierTest {
+
+    private static byte[] solution() {
+        var moves = new BidirectionalSearch().search(new TowerPuzzleState().toPackedState()).orElseThrow();
+        var log = new MoveLog();
+        for (var move : moves) {
+            log.add(move.from().col(), move.to().col());
+        }
+        return log.toByteArray();
+    }
+
+    private static GameResults result(byte[] moves, int moveCount, boolean completed) {
+        return new GameResults("Anna", moveCount, Boolean.toString(completed),
+                Base64.getEncoder().encodeToString(moves));
+    }
+
+    @Test
+    void testVerdicts() {
+        var verifier = new ReplayVerifier();
+        byte[] moves = solution();
+        assertEquals(ReplayVerifier.Verdict.VALID, verifier.verify(result(moves, moves.length, true)));
+        assertEquals(ReplayVerifier.Verdict.MOVE_COUNT_MISMATCH, verifier.verify(result(moves, moves.length - 1, true)));
+        assertEquals(ReplayVerifier.Verdict.COMPLETION_MISMATCH, verifier.verify(result(moves, moves.length, false)));
+        byte[] partial = Arrays.copyOf(moves, 10);
+        assertEquals(ReplayVerifier.Verdict.VALID, verifier.verify(result(partial, 10, false)));
+        assertEquals(ReplayVerifier.Verdict.COMPLETION_MISMATCH, verifier.verify(result(partial, 10, true)));
+        partial[3] = MoveLog.encode(PackedMove.of(2, 2));
+        assertEquals(ReplayVerifier.Verdict.ILLEGAL_MOVE, verifier.verify(result(partial, 10, false)));
+        assertEquals(ReplayVerifier.Verdict.UNRECORDED, verifier.verify(new GameResults("Anna", 67, "true")));
+        assertEquals(ReplayVerifier.Verdict.MALFORMED, verifier.verify(new GameResults("Anna", 67, "true", "?")));
+    }
+
+    @Test
+    void testVerifiesBatchInParallel() {
+        byte[] moves = solution();
+        List<GameResults> results = new ArrayList<>(Collections.nCopies(10_000, result(moves, moves.length, true)));
+        results.set(1234, result(moves, moves.length, false));
+        var report = new ReplayVerifier().verifyAll(results);
+        assertEquals(9_999, report.count(ReplayVerifier.Verdict.VALID));
+        assertEquals(ReplayVerifier.Verdict.COMPLETION_MISMATCH, report.verdicts().get(1234));
+        assertEquals(10_000L * moves.length, report.moves());
+    }
+
+    @Test
+    void testCountsOnlyReplayedMoves() {
+        byte[] moves = solution();
+        byte[] illegal = moves.clone();
+        illegal[3] = MoveLog.encode(PackedMove.of(2, 2));
+        var report = new ReplayVerifier().verifyAll(List.of(result(moves, moves.length, true),
+                result(illegal, illegal.length, true), result(moves, moves.length - 1, true)));
+        assertEquals(ReplayVerifier.Verdict.ILLEGAL_MOVE, report.verdicts().get(1));
+        assertEquals(moves.length + 3L, report.moves());
+    }
+}
@@ -0,0 +1,94 @@
+import json.GameResults;
+import json.ResultLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultLogTest {
+
+    private Path directory;
+    private Path file;
+    private Path legacyFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("results");
+        file = directory.resolve("results.jsonl");
+        legacyFile = directory.resolve("results.json");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void testMigratesLegacyFileAndAppends() throws IOException {
+        Files.writeString(legacyFile, """
+                [
+                  {
+                    "playerName": "Fanni",
+                    "moveCount": 0,
+                    "isCompleted": "false"
+                  }
+                ]""");
+        var log = ResultLog.open(file, legacyFile);
+        log.append(new GameResults("Anna", 67, "true"));
+        assertEquals(List.of(new GameResults("Fanni", 0, "false"), new GameResults("Anna", 67, "true")),
+                ResultLog.open(file, legacyFile).readAll());
+        assertTrue(Files.exists(legacyFile));
+    }
+
+    @Test
+    void testRecoversTornTailAndCompacts() throws IOException {
+        var log = ResultLog.open(file, legacyFile);
+        log.append(new GameResults("Anna", 67, "true"));
+        Files.writeString(file, "not a result\n{\"playerName\":\"Béla\",\"mov", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+        log = ResultLog.open(file, legacyFile);
+        log.append(new GameResults("Cecil", 70, "true"));
+        assertEquals(List.of(new GameResults("Anna", 67, "true"), new GameResults("Cecil", 70, "true")), log.readAll());
+        assertTrue(log.needsCompaction());
+        log.compact();
+        assertFalse(log.needsCompaction());
+        assertEquals(2, Files.readAllLines(file).size());
+        assertEquals(2, log.readAll().size());
+    }
+
+    @Test
+    void testReadsPagesBackward() throws IOException {
+        var log = ResultLog.open(file, legacyFile);
+        assertNull(log.readLast());
+        for (int i = 0; i < 500; i++) {
+            log.append(new GameResults("player" + i, i, Boolean.toString(i % 2 == 0)));
+        }
+        assertEquals(new GameResults("player499", 499, "false"), log.readLast());
+        List<GameResults> results = new ArrayList<>();
+        long position = log.size();
+        ResultLog.Page page;
+        do {
+            page = log.readPageBefore(position, 7);
+            results.addAll(page.results());
+            position = page.position();
+        } while (page.hasMore());
+        Collections.reverse(results);
+        assertEquals(log.readAll(), results);
+    }
+}
@@ -0,0 +1,85 @@
+import json.GameResults;
+import json.Leaderboard;
+import json.ResultLog;
+import json.ResultWriter;
+import json.SyncPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultWriterTest {
+
+    private Path directory;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("writer");
+        file = directory.resolve("results.jsonl");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (var path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void testFlushMakesResultsVisible() throws Exception {
+        try (var writer = new ResultWriter(file, SyncPolicy.INTERVAL, Duration.ofMillis(10), 16)) {
+            List<GameResults> expected = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                var result = new GameResults("Player" + i % 7, 67 + i, "true");
+                writer.submit(result);
+                expected.add(result);
+            }
+            assertEquals(expected.getLast(), writer.getLatest());
+            writer.flush().join();
+            var log = ResultLog.open(file, directory.resolve("results.json"));
+            assertEquals(expected, log.readAll());
+            var leaderboard = Leaderboard.open(directory.resolve("leaderboard.bin"), log);
+            assertEquals(OptionalInt.of(1), leaderboard.rank("Player0"));
+            assertEquals(new Leaderboard.Entry("Player6", 73, 6), leaderboard.top("Player6", 1).getFirst());
+        }
+    }
+
+    @Test
+    void testCompactsLogWithInvalidLines() throws Exception {
+        Files.writeString(file, "{\"playerName\":\"Anna\",\"moveCount\":70,\"isCompleted\":\"true\"}\nnot json\n");
+        try (var writer = new ResultWriter(file, SyncPolicy.ALWAYS, Duration.ofSeconds(1), 16)) {
+            writer.submit(new GameResults("Bob", 68, "true"));
+            writer.flush().join();
+        }
+        assertFalse(Files.readString(file).contains("not json"));
+        var log = ResultLog.open(file, directory.resolve("results.json"));
+        assertEquals(2, log.readAll().size());
+        assertEquals(OptionalInt.of(1), Leaderboard.open(directory.resolve("leaderboard.bin"), log).rank("Bob"));
+    }
+
+    @Test
+    void testCloseDrainsQueue() throws Exception {
+        var writer = new ResultWriter(file, SyncPolicy.NEVER, Duration.ofSeconds(1), ResultWriter.DEFAULT_CAPACITY);
+        for (int i = 0; i < 100; i++) {
+            writer.submit(new GameResults("Anna", i, "false"));
+        }
+        writer.close();
+        assertEquals(100, ResultLog.open(file, directory.resolve("results.json")).readAll().size());
+        assertThrows(IllegalStateException.class, () -> writer.submit(new GameResults("Anna", 0, "false")));
+        assertTrue(writer.flush().isDone());
+    }
+}
@@ -0,0 +1,54 @@
+import bfs.MisplacedDisks;
+import model.PackedBoard;
+import org.junit.jupiter.api.Test;
+import simulation.Histogram;
+import simulation.Policy;
+import simulation.Simulation;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulationTest {
+
+    @Test
+    void testResultsDoNotDependOnPool() {
+        var pool = new ForkJoinPool(1);
+        try {
+            var single = new Simulation(PackedBoard.STANDARD, pool).run(Policy::random, 1000, 2000, 42);
+            var common = new Simulation().run(Policy::random, 1000, 2000, 42);
+            assertEquals(1000, single.getGameCount());
+            assertEquals(single.getMoveCount(), common.getMoveCount());
+            assertEquals(single.getSolvedCount(), common.getSolvedCount());
+            assertArrayEquals(single.getSolvedMoves().toArray(), common.getSolvedMoves().toArray());
+            assertEquals(single.getDeadEndCount(), common.getDeadEndCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testSolvedGamesAreNotShorterThanOptimal() {
+        var stats = new Simulation().run(() -> Policy.greedy(new MisplacedDisks()), 500, 5000, 7);
+        assertTrue(stats.getSolvedMoves().getCount() == 0 || stats.getSolvedMoves().getPercentile(0) >= 67);
+        assertEquals(stats.getSolvedCount(), stats.getSolvedMoves().getCount());
+        assertEquals(500, stats.getDeadEnds().getCount());
+    }
+
+    @Test
+    void testHistogram() {
+        var histogram = new Histogram(10);
+        for (int value : new int[]{1, 2, 2, 3, 50}) {
+            histogram.add(value);
+        }
+        var other = new Histogram(10);
+        other.add(2);
+        histogram.merge(other);
+        assertEquals(6, histogram.getCount());
+        assertEquals(3, histogram.getCount(2));
+        assertEquals(1, histogram.getCount(10));
+        assertEquals(2, histogram.getPercentile(0.5));
+        assertEquals(10, histogram.getPercentile(1));
+        assertEquals(60 / 6.0, histogram.getMean(), 1e-9);
+    }
+}
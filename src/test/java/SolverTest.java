@@ -0,0 +1,376 @@
+import bfs.AStarSearch;
+import bfs.BidirectionalSearch;
+import bfs.CachingSolver;
+import bfs.Heuristic;
+import bfs.IdaStarSearch;
+import bfs.LayerStats;
+import bfs.MisplacedDisks;
+import bfs.PackedBreadthFirstSearch;
+import bfs.ParallelBreadthFirstSearch;
+import bfs.PatternDatabase;
+import bfs.SearchAbortedException;
+import bfs.SearchBudget;
+import bfs.SearchControl;
+import bfs.SearchOutcome;
+import bfs.SolutionCache;
+import bfs.Solver;
+import bfs.SolverService;
+import bfs.StateLimitExceededException;
+import bfs.StateRank;
+import bfs.Tablebase;
+import model.PackedBoard;
+import model.Position;
+import model.PuzzleConfig;
+import model.TowerPuzzleState;
+import org.junit.jupiter.api.Test;
+import puzzle.TwoPhaseMoveState;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolverTest {
+
+    private static final int OPTIMAL_LENGTH = 67;
+
+    private static void assertSolves(List<TwoPhaseMoveState.TwoPhaseMove<Position>> moves) {
+        assertSolves(PuzzleConfig.STANDARD, moves);
+    }
+
+    private static void assertSolves(PuzzleConfig config, List<TwoPhaseMoveState.TwoPhaseMove<Position>> moves) {
+        var model = new TowerPuzzleState(config);
+        for (var move : moves) {
+            assertTrue(model.isLegalMove(move));
+            model.makeMove(move);
+        }
+        assertTrue(model.isSolved());
+    }
+
+    @Test
+    void testBreadthFirstSearch() {
+        var search = new PackedBreadthFirstSearch();
+        var moves = search.search(new TowerPuzzleState()).orElseThrow();
+        assertEquals(OPTIMAL_LENGTH, moves.size());
+        assertSolves(moves);
+        assertTrue(search.getVisitedCount() > 0);
+    }
+
+    @Test
+    void testBreadthFirstSearchFromSolvedState() {
+        var search = new PackedBreadthFirstSearch();
+        var moves = search.search(new TowerPuzzleState()).orElseThrow();
+        var model = new TowerPuzzleState();
+        moves.forEach(model::makeMove);
+        assertTrue(search.search(model).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void testBreadthFirstSearchOnLargerBoard() {
+        var config = new PuzzleConfig(4, 3, 2);
+        var model = new TowerPuzzleState(config);
+        var moves = new PackedBreadthFirstSearch(model.getBoard()).search(model).orElseThrow();
+        assertSolves(config, moves);
+        assertEquals(moves.size(), new BidirectionalSearch(model.getBoard()).search(model).orElseThrow().size());
+    }
+
+    @Test
+    void testSearchesRespectStateLimit() {
+        var board = PackedBoard.STANDARD;
+        long start = new TowerPuzzleState().toPackedState();
+        assertThrows(StateLimitExceededException.class, () -> new PackedBreadthFirstSearch(board, 1000).search(start));
+        assertThrows(StateLimitExceededException.class,
+                () -> new BidirectionalSearch(board, board.solvedStates(), 1000).search(start));
+    }
+
+    @Test
+    void testBidirectionalSearch() {
+        var search = new BidirectionalSearch();
+        var moves = search.search(new TowerPuzzleState()).orElseThrow();
+        assertEquals(OPTIMAL_LENGTH, moves.size());
+        assertSolves(moves);
+
+        var breadthFirst = new PackedBreadthFirstSearch();
+        breadthFirst.search(new TowerPuzzleState());
+        assertTrue(search.getExpandedCount() < breadthFirst.getExpandedCount());
+    }
+
+    @Test
+    void testSearchesFromRotatedStates() {
+        var board = PackedBoard.STANDARD;
+        long state = board.move(board.move(new TowerPuzzleState().toPackedState(), 0, 2), 1, 0);
+        long rotated = board.rotate(state, 1);
+        assertNotEquals(state, rotated);
+        for (long start : new long[]{state, rotated}) {
+            var breadthFirst = new PackedBreadthFirstSearch(board).search(start).orElseThrow();
+            var bidirectional = new BidirectionalSearch().search(start).orElseThrow();
+            var parallel = new ParallelBreadthFirstSearch().search(start).orElseThrow();
+            for (var moves : List.of(breadthFirst, bidirectional, parallel)) {
+                assertEquals(breadthFirst.size(), moves.size());
+                var model = new TowerPuzzleState(start);
+                for (var move : moves) {
+                    assertTrue(model.isLegalMove(move));
+                    model.makeMove(move);
+                }
+                assertTrue(model.isSolved());
+            }
+        }
+    }
+
+    @Test
+    void testBidirectionalSearchFromGoal() {
+        long goal = PackedBoard.STANDARD.solvedStates()[0];
+        assertTrue(PackedBoard.STANDARD.isSolved(goal));
+        assertTrue(new BidirectionalSearch().search(goal).orElseThrow().isEmpty());
+    }
+
+    @Test
+    void testHeuristicsAreAdmissible() {
+        var moves = new PackedBreadthFirstSearch().search(new TowerPuzzleState()).orElseThrow();
+        var misplaced = new MisplacedDisks();
+        var patterns = PatternDatabase.ofLargestDisks(2);
+        var model = new TowerPuzzleState();
+        for (int i = 0; i <= moves.size(); i++) {
+            long state = model.toPackedState();
+            assertTrue(misplaced.estimate(state) <= moves.size() - i);
+            assertTrue(patterns.estimate(state) <= moves.size() - i);
+            if (i < moves.size()) {
+                model.makeMove(moves.get(i));
+            }
+        }
+        assertEquals(0, patterns.estimate(model.toPackedState()));
+    }
+
+    @Test
+    void testAStarSearch() {
+        var plain = new AStarSearch();
+        assertEquals(OPTIMAL_LENGTH, plain.search(new TowerPuzzleState()).orElseThrow().size());
+
+        var informed = new AStarSearch(Heuristic.max(new MisplacedDisks(), PatternDatabase.ofLargestDisks(3)));
+        var moves = informed.search(new TowerPuzzleState()).orElseThrow();
+        assertEquals(OPTIMAL_LENGTH, moves.size());
+        assertSolves(moves);
+        assertTrue(informed.getExpandedCount() < plain.getExpandedCount());
+    }
+
+    @Test
+    void testIdaStarSearch() {
+        var moves = new PackedBreadthFirstSearch().search(new TowerPuzzleState()).orElseThrow();
+        var model = new TowerPuzzleState();
+        moves.subList(0, moves.size() - 20).forEach(model::makeMove);
+
+        var heuristic = Heuristic.max(new MisplacedDisks(), PatternDatabase.ofLargestDisks(3));
+        assertEquals(20, new IdaStarSearch(heuristic).search(model).orElseThrow().size());
+        assertEquals(20, new IdaStarSearch(heuristic, 16).search(model).orElseThrow().size());
+    }
+
+    @Test
+    void testHeuristicSearchesReportLowerBound() {
+        long start = new TowerPuzzleState().toPackedState();
+        var misplaced = new MisplacedDisks();
+        for (Solver search : List.<Solver>of(new AStarSearch(misplaced), new IdaStarSearch(misplaced))) {
+            search.setSearchControl(new SearchControl(SearchBudget.UNLIMITED.withMaxStates(0)));
+            assertThrows(SearchAbortedException.class, () -> search.search(start));
+            var metrics = search.getMetrics().orElseThrow();
+            assertEquals(SearchOutcome.STATE_LIMIT_EXCEEDED, metrics.getOutcome());
+            assertTrue(metrics.getExpandedCount() > 0);
+            assertTrue(metrics.getDuplicateCount() <= metrics.getGeneratedCount());
+            assertTrue(metrics.getLowerBound() >= misplaced.estimate(start));
+            assertTrue(metrics.getLowerBound() <= OPTIMAL_LENGTH);
+        }
+
+        var moves = new PackedBreadthFirstSearch().search(new TowerPuzzleState()).orElseThrow();
+        var model = new TowerPuzzleState();
+        moves.subList(0, moves.size() - 20).forEach(model::makeMove);
+        var heuristic = Heuristic.max(misplaced, PatternDatabase.ofLargestDisks(3));
+        for (Solver search : List.<Solver>of(new AStarSearch(heuristic), new IdaStarSearch(heuristic))) {
+            search.search(model);
+            assertEquals(20, search.getMetrics().orElseThrow().getSolutionLength());
+            assertEquals(20, search.getMetrics().orElseThrow().getLowerBound());
+        }
+    }
+
+    @Test
+    void testParallelBreadthFirstSearch() {
+        var search = new ParallelBreadthFirstSearch();
+        var moves = search.search(new TowerPuzzleState()).orElseThrow();
+        assertEquals(OPTIMAL_LENGTH, moves.size());
+        assertSolves(moves);
+
+        long[] sizes = search.getLayerSizes();
+        assertEquals(OPTIMAL_LENGTH + 1, sizes.length);
+        assertEquals(1, sizes[0]);
+        assertEquals(search.getExpandedCount(), Arrays.stream(sizes, 0, OPTIMAL_LENGTH).sum());
+    }
+
+    @Test
+    void testParallelBreadthFirstSearchHonorsBudget() {
+        var search = new ParallelBreadthFirstSearch();
+        List<LayerStats> layers = new ArrayList<>();
+        search.setSearchListener(layers::add);
+        search.search(new TowerPuzzleState());
+        var metrics = search.getMetrics().orElseThrow();
+        assertEquals(SearchOutcome.SOLVED, metrics.getOutcome());
+        assertEquals(metrics.getLayers(), layers);
+        assertEquals(OPTIMAL_LENGTH, layers.size());
+        assertEquals(search.getExpandedCount(), metrics.getExpandedCount());
+        assertEquals(metrics.getGeneratedCount(), metrics.getDuplicateCount() + metrics.getVisitedCount() - 1);
+
+        search.setSearchControl(new SearchControl(SearchBudget.UNLIMITED.withTimeLimit(Duration.ZERO)));
+        var late = assertThrows(SearchAbortedException.class, () -> search.search(new TowerPuzzleState()));
+        assertEquals(SearchOutcome.DEADLINE_EXCEEDED, late.getOutcome());
+        search.setSearchControl(new SearchControl(SearchBudget.UNLIMITED.withMaxStates(100)));
+        assertThrows(StateLimitExceededException.class, () -> search.search(new TowerPuzzleState()));
+        assertEquals(SearchOutcome.STATE_LIMIT_EXCEEDED, search.getMetrics().orElseThrow().getOutcome());
+
+        var limited = new ParallelBreadthFirstSearch(PackedBoard.STANDARD, ForkJoinPool.commonPool(), 1000);
+        assertThrows(StateLimitExceededException.class, () -> limited.search(new TowerPuzzleState()));
+
+        var goalLayer = new ParallelBreadthFirstSearch(PackedBoard.STANDARD, ForkJoinPool.commonPool(),
+                metrics.getVisitedCount() - 1);
+        var moves = goalLayer.search(new TowerPuzzleState()).orElseThrow();
+        assertEquals(OPTIMAL_LENGTH, moves.size());
+        assertSolves(moves);
+        assertEquals(OPTIMAL_LENGTH, goalLayer.getMetrics().orElseThrow().getSolutionLength());
+    }
+
+    @Test
+    void testStateRankIsBijective() {
+        var ranks = new StateRank();
+        assertEquals(12 * 12 * 12 * 12, ranks.count());
+        for (long rank = 0; rank < ranks.count(); rank++) {
+            assertEquals(rank, ranks.rank(ranks.unrank(rank)));
+        }
+        assertTrue(ranks.rank(new TowerPuzzleState().toPackedState()) < ranks.count());
+
+        var larger = new StateRank(new PackedBoard(new PuzzleConfig(4, 3, 2)));
+        assertEquals(120 * 120, larger.count());
+        for (long rank = 0; rank < larger.count(); rank++) {
+            assertEquals(rank, larger.rank(larger.unrank(rank)));
+        }
+    }
+
+    @Test
+    void testTablebase() throws IOException {
+        Path file = Files.createTempFile("tablebase", ".bin");
+        try {
+            Tablebase.generate(file);
+            var tablebase = Tablebase.open(file);
+            long start = new TowerPuzzleState().toPackedState();
+            assertEquals(OPTIMAL_LENGTH, tablebase.distance(start));
+            long goal = PackedBoard.STANDARD.solvedStates()[0];
+            assertEquals(0, tablebase.distance(goal));
+            assertTrue(tablebase.bestMove(goal).isEmpty());
+
+            var moves = tablebase.search(start).orElseThrow();
+            assertEquals(OPTIMAL_LENGTH, moves.size());
+            assertSolves(moves);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testTablebaseRejectsOtherFiles() throws IOException {
+        Path file = Files.createTempFile("tablebase", ".bin");
+        try {
+            Files.write(file, new byte[]{1, 2, 3});
+            assertThrows(IOException.class, () -> Tablebase.open(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testSearchMetrics() {
+        var search = new PackedBreadthFirstSearch();
+        List<LayerStats> layers = new ArrayList<>();
+        search.setSearchListener(layers::add);
+        search.search(new TowerPuzzleState());
+        var metrics = search.getMetrics().orElseThrow();
+        assertEquals(SearchOutcome.SOLVED, metrics.getOutcome());
+        assertEquals(67, metrics.getSolutionLength());
+        assertEquals(metrics.getLayers(), layers);
+        assertEquals(67, layers.size());
+        assertEquals(66, layers.getLast().depth());
+        assertEquals(1, layers.getFirst().states());
+        assertEquals(search.getVisitedCount(), metrics.getVisitedCount());
+        assertEquals(search.getExpandedCount(), metrics.getExpandedCount());
+        assertEquals(metrics.getGeneratedCount(), metrics.getDuplicateCount() + metrics.getVisitedCount() - 1);
+        assertTrue(metrics.getBytesPerState() > 0);
+        assertTrue(metrics.toJson().startsWith("{\"solver\":\"bfs\",\"outcome\":\"solved\""));
+
+        var bidirectional = new BidirectionalSearch(PackedBoard.STANDARD, PackedBoard.STANDARD.solvedStates(), 1000);
+        assertThrows(StateLimitExceededException.class, () -> bidirectional.search(new TowerPuzzleState()));
+        assertEquals(SearchOutcome.STATE_LIMIT_EXCEEDED, bidirectional.getMetrics().orElseThrow().getOutcome());
+    }
+
+    @Test
+    void testSolverServiceHonorsBudgetAndCancellation() throws Exception {
+        long start = new TowerPuzzleState().toPackedState();
+        try (var service = new SolverService(PackedBreadthFirstSearch::new)) {
+            var solved = service.submit(start, SearchBudget.UNLIMITED, null).result().get();
+            assertTrue(solved.isSolved());
+            assertEquals(67, solved.solution().orElseThrow().size());
+
+            List<LayerStats> layers = new ArrayList<>();
+            var limited = service.submit(start, SearchBudget.UNLIMITED.withMaxStates(5000), layers::add).result().get();
+            assertEquals(SearchOutcome.STATE_LIMIT_EXCEEDED, limited.outcome());
+            assertTrue(limited.solution().isEmpty());
+            var metrics = limited.metrics().orElseThrow();
+            assertEquals(layers.size() + 1, metrics.getLowerBound());
+            assertEquals(SearchOutcome.STATE_LIMIT_EXCEEDED, metrics.getOutcome());
+
+            var late = service.submit(start, SearchBudget.UNLIMITED.withTimeLimit(Duration.ZERO), null).result().get();
+            assertEquals(SearchOutcome.DEADLINE_EXCEEDED, late.outcome());
+
+            var cancelled = service.submit(start, SearchBudget.UNLIMITED, null);
+            cancelled.cancel();
+            var result = cancelled.result().get();
+            assertTrue(result.outcome() == SearchOutcome.CANCELLED || result.isSolved());
+        }
+    }
+
+    @Test
+    void testSolutionCache() throws IOException {
+        var board = PackedBoard.STANDARD;
+        long start = new TowerPuzzleState().toPackedState();
+        Path file = Files.createTempFile("solutions", ".bin");
+        Files.delete(file);
+        try {
+            List<TwoPhaseMoveState.TwoPhaseMove<Position>> expected;
+            try (var cache = SolutionCache.open(board, file)) {
+                var solver = new CachingSolver(new BidirectionalSearch(), cache);
+                expected = solver.search(start).orElseThrow();
+                assertFalse(solver.isCacheHit());
+                assertEquals(67, cache.size());
+                assertEquals(expected, solver.search(start).orElseThrow());
+                assertTrue(solver.isCacheHit());
+                assertEquals(0, solver.getExpandedCount());
+            }
+            Files.write(file, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+            long length = Files.size(file);
+            try (var cache = SolutionCache.open(board, file, 1)) {
+                assertEquals(length - 3, Files.size(file));
+                assertEquals(67, cache.size());
+                assertEquals(expected, cache.get(start).orElseThrow());
+                long next = board.move(start, expected.getFirst().from().col(), expected.getFirst().to().col());
+                assertEquals(expected.subList(1, expected.size()), cache.get(next).orElseThrow());
+                assertEquals(2, cache.getHitCount());
+                var truncated = expected.subList(0, expected.size() - 1);
+                assertThrows(IllegalArgumentException.class, () -> cache.putAll(start, truncated));
+                assertEquals(67, cache.size());
+                assertEquals(length - 3, Files.size(file));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
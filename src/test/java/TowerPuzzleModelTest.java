@@ -1,14 +1,19 @@
 
 
 import javafx.beans.property.ReadOnlyObjectProperty;
+import model.BoardChange;
 import model.Colors;
 import model.Disk;
+import model.PackedMove;
 import model.Position;
 import model.TowerPuzzleModel;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import puzzle.TwoPhaseMoveState;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static model.TowerPuzzleModel.ROW_SIZE;
@@ -80,6 +85,51 @@ public class TowerPuzzleModelTest {
         assertFalse(legalMoves.isEmpty());
     }
 
+    @Test
+    public void testForEachLegalMove() {
+        Set<TwoPhaseMoveState.TwoPhaseMove<Position>> moves = new HashSet<>();
+        model.forEachLegalMove(move -> moves.add(model.toTwoPhaseMove(move)));
+        assertEquals(model.getLegalMoves(), moves);
+        assertEquals(4, moves.size());
+        assertTrue(model.isLegalMove(PackedMove.of(0, 2)));
+        assertFalse(model.isLegalMove(PackedMove.of(2, 0)));
+        assertFalse(model.isLegalMove(PackedMove.of(0, 0)));
+    }
+
+    @Test
+    public void testMoveOntoSameRodIsIllegal() {
+        assertFalse(model.isLegalMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(4, 0), new Position(3, 0))));
+    }
+
+    @Test
+    public void testHeightsFollowMoves() {
+        model.makeMove(PackedMove.of(0, 2));
+        assertEquals(3, model.getHeight(0));
+        assertEquals(1, model.getHeight(2));
+        assertTrue(model.isTopDisk(new Position(ROW_SIZE - 1, 2)));
+        assertTrue(model.isLegalToMoveTo(new Position(ROW_SIZE - 2, 2)));
+        assertEquals(Colors.RED, model.diskProperty(ROW_SIZE - 1, 2).get().getColors());
+    }
+
+    @Test
+    public void testMoveUpdatesStablePropertiesAndNotifiesOnce() {
+        ReadOnlyObjectProperty<Disk> from = model.diskProperty(4, 0);
+        ReadOnlyObjectProperty<Disk> to = model.diskProperty(ROW_SIZE - 1, 2);
+        List<BoardChange> changes = new ArrayList<>();
+        model.addBoardChangeListener(changes::add);
+
+        model.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(4, 0), new Position(ROW_SIZE - 1, 2)));
+        assertSame(from, model.diskProperty(4, 0));
+        assertSame(to, model.diskProperty(ROW_SIZE - 1, 2));
+        assertEquals(Colors.EMPTY, from.get().getColors());
+        assertEquals(Colors.RED, to.get().getColors());
+        assertEquals(1, changes.size());
+        assertEquals(Set.of(new Position(4, 0), new Position(ROW_SIZE - 1, 2)), Set.copyOf(changes.get(0).positions()));
+
+        model.makeMove(new TwoPhaseMoveState.TwoPhaseMove<>(new Position(4, 0), new Position(3, 0)));
+        assertEquals(1, changes.size());
+    }
+
     @Test
     public void testIsSolved() {
         assertFalse(model.isSolved());
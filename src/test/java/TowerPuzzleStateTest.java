@@ -0,0 +1,172 @@
+import model.Colors;
+import model.Disk;
+import model.PackedBoard;
+import model.PackedMove;
+import model.Position;
+import model.PuzzleConfig;
+import model.TowerPuzzleModel;
+import model.TowerPuzzleState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static model.TowerPuzzleModel.ROW_SIZE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TowerPuzzleStateTest {
+
+    private TowerPuzzleState state;
+
+    @BeforeEach
+    void setUp() {
+        state = new TowerPuzzleState();
+    }
+
+    @Test
+    void testMatchesModel() {
+        var model = new TowerPuzzleModel();
+        assertEquals(model.getLegalMoves(), state.getLegalMoves());
+        assertEquals(model.toPackedState(), state.toPackedState());
+        for (int i = 0; i < ROW_SIZE; i++) {
+            for (int j = 0; j < 3; j++) {
+                assertEquals(model.diskProperty(i, j).get(), state.getDisk(i, j));
+            }
+        }
+    }
+
+    @Test
+    void testCloneIsIndependent() {
+        var clone = state.clone();
+        assertEquals(state, clone);
+        clone.makeMove(PackedMove.of(0, 2));
+        assertNotEquals(state, clone);
+        assertEquals(0, state.getHeight(2));
+        assertEquals(1, clone.getHeight(2));
+    }
+
+    @Test
+    void testModelFollowsState() {
+        var model = new TowerPuzzleModel(state);
+        state.makeMove(PackedMove.of(0, 2));
+        assertEquals(Colors.EMPTY, model.diskProperty(4, 0).get().getColors());
+        assertEquals(Colors.RED, model.diskProperty(ROW_SIZE - 1, 2).get().getColors());
+    }
+
+    @Test
+    void testPackedRoundTrip() {
+        var config = new PuzzleConfig(4, 3, 2);
+        var larger = new TowerPuzzleState(config);
+        larger.makeMove(PackedMove.of(1, 3));
+        assertEquals(larger, new TowerPuzzleState(config, larger.toPackedState()));
+        assertEquals(new Position(config.rowSize() - 1, 3), larger.getTopPosition(3));
+    }
+
+    @Test
+    void testBoardsTooLargeToPack() {
+        for (var config : new PuzzleConfig[]{new PuzzleConfig(4, 3, 6), new PuzzleConfig(5, 4, 5),
+                new PuzzleConfig(6, 2, 10)}) {
+            assertFalse(PackedBoard.fits(config));
+            var large = new TowerPuzzleState(config);
+            assertFalse(large.isSolved());
+            assertEquals(config.disksPerColor(), large.getHeight(0));
+            var clone = large.clone();
+            large.makeMove(PackedMove.of(0, config.rods() - 1));
+            assertEquals(1, large.getHeight(config.rods() - 1));
+            assertNotEquals(clone, large);
+            assertThrows(IllegalArgumentException.class, large::toPackedState);
+        }
+        assertTrue(PackedBoard.fits(new PuzzleConfig(4, 3, 5)));
+    }
+
+    @Test
+    void testLargestBoard() {
+        assertThrows(IllegalArgumentException.class, () -> new PuzzleConfig(4, 4, 32));
+        assertThrows(IllegalArgumentException.class, () -> new PuzzleConfig(3, 2, 64));
+        var config = new PuzzleConfig(3, 2, 63);
+        assertEquals(PuzzleConfig.MAX_DISKS, config.diskCount());
+        var largest = new TowerPuzzleState(config);
+        assertEquals(config.disksPerColor(), largest.getDisk(config.rowSize() - 1, 1).getValue());
+        assertEquals(1, largest.getDisk(config.rowSize() - config.disksPerColor(), 0).getValue());
+        largest.makeMove(PackedMove.of(0, 2));
+        assertEquals(1, largest.getHeight(2));
+        assertEquals(31, new TowerPuzzleState(new PuzzleConfig(5, 4, 31)).getHeight(3));
+    }
+
+    @Test
+    void testDisksAndPositionsAreShared() {
+        assertSame(Position.of(4, 1), Position.of(4, 1));
+        assertEquals(new Position(4, 1), Position.of(4, 1));
+        assertSame(state.getDisk(ROW_SIZE - 1, 0), state.clone().getDisk(ROW_SIZE - 1, 0));
+        assertSame(state.getDisk(0, 2), state.getDisk(Position.of(0, 2)));
+        assertSame(Position.of(ROW_SIZE - 1, 0), state.getDisk(ROW_SIZE - 1, 0).getPosition());
+        var config = PuzzleConfig.STANDARD;
+        var disk = Disk.of(config, Colors.RED, 3, new Position(2, 1));
+        assertSame(disk, Disk.of(config, Colors.RED, 3, Position.of(2, 1)));
+        assertSame(Position.of(2, 1), disk.getPosition());
+        assertEquals(new Disk(Colors.RED, new Position(2, 1), 3).hashCode(), disk.hashCode());
+        assertSame(state.getDisk(0, 1), Disk.of(config, Colors.EMPTY, 0, Position.of(0, 1)));
+        assertSame(PackedBoard.STANDARD.decode(state.toPackedState())[ROW_SIZE - 1][0], state.getDisk(ROW_SIZE - 1, 0));
+        assertEquals(new Disk(Colors.GREEN, Position.of(2, 1), 3), Disk.of(config, Colors.GREEN, 3, Position.of(2, 1)));
+        assertEquals(new Disk(Colors.RED, Position.of(2, 3), 3), Disk.of(config, Colors.RED, 3, Position.of(2, 3)));
+        var move = state.toTwoPhaseMove(PackedMove.of(0, 2));
+        assertSame(state.getTopPosition(0), move.from());
+    }
+
+    @Test
+    void testApplyAndUndo() {
+        var model = new TowerPuzzleModel(state);
+        var start = state.clone();
+        int[] moves = new int[6 * state.getBoard().maxSuccessors()];
+        assertEquals(countByCloning(state.clone(), 6), count(6, moves));
+        assertEquals(start, state);
+        assertEquals(start.fingerprint(), state.fingerprint());
+
+        model.apply(PackedMove.of(0, 2));
+        assertEquals(state.getBoard().move(start.toPackedState(), 0, 2), state.toPackedState());
+        assertEquals(Colors.EMPTY, model.diskProperty(ROW_SIZE - 1, 2).get().getColors());
+        model.undo(PackedMove.of(0, 2));
+        assertEquals(start, state);
+    }
+
+    private int count(int depth, int[] moves) {
+        if (depth == 0) {
+            return 1;
+        }
+        int offset = (depth - 1) * state.getBoard().maxSuccessors();
+        int end = offset + state.legalMoves(moves, offset);
+        int count = 0;
+        for (int i = offset; i < end; i++) {
+            state.apply(moves[i]);
+            count += count(depth - 1, moves);
+            state.undo(moves[i]);
+        }
+        return count;
+    }
+
+    private static int countByCloning(TowerPuzzleState state, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        int count = 0;
+        for (var move : state.getLegalMoves()) {
+            var next = state.clone();
+            next.makeMove(move);
+            count += countByCloning(next, depth - 1);
+        }
+        return count;
+    }
+
+    @Test
+    void testFingerprintIsIncremental() {
+        long start = state.fingerprint();
+        var clone = state.clone();
+        state.makeMove(PackedMove.of(0, 2));
+        assertNotEquals(start, state.fingerprint());
+        assertEquals(start, clone.fingerprint());
+        assertEquals(new TowerPuzzleState(state.toPackedState()).fingerprint(), state.fingerprint());
+        state.makeMove(PackedMove.of(2, 0));
+        assertEquals(start, state.fingerprint());
+        assertEquals(clone.hashCode(), state.hashCode());
+        clone.setRods(state.getRods());
+        assertEquals(start, clone.fingerprint());
+    }
+}